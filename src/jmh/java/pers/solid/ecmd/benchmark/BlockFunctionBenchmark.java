@@ -0,0 +1,58 @@
+package pers.solid.ecmd.benchmark;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.Registries;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pers.solid.ecmd.function.block.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 测试方块函数计算修改后的方块状态的速度，并比较缓存前后的结果。没有可用的世界，因此只测试不需要访问世界（包括世界中的随机数）的方块函数。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockFunctionBenchmark {
+  @Param({"dry", "idreplace", "dry_idreplace"})
+  public String functionType;
+  @Param({"false", "true"})
+  public boolean memoized;
+  private BlockFunction function;
+  private BlockState[] states;
+
+  @Setup
+  public void setup() {
+    Headless.bootstrap();
+    final BlockFunction idReplace = new IdReplaceBlockFunction(Pattern.compile("stone"), "cobblestone", Registries.BLOCK.getReadOnlyWrapper());
+    function = switch (functionType) {
+      case "dry" -> new DryBlockFunction(null);
+      case "idreplace" -> idReplace;
+      case "dry_idreplace" -> new DryBlockFunction(idReplace);
+      default -> throw new IllegalArgumentException(functionType);
+    };
+    if (memoized) {
+      function = MemoizedBlockFunction.of(function);
+    }
+    final Headless.SyntheticBlocks blocks = new Headless.SyntheticBlocks(new BlockBox(0, 0, 0, 63, 63, 63), Headless.samplePalette(), 0);
+    states = BlockPos.stream(blocks.getBox()).map(blocks::getBlockState).toArray(BlockState[]::new);
+  }
+
+  @Benchmark
+  public void getModifiedState(Blackhole blackhole) {
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    final MutableObject<NbtCompound> blockEntityData = new MutableObject<>();
+    for (BlockState state : states) {
+      blackhole.consume(function.getModifiedState(state, state, null, mutable, 3, blockEntityData));
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package pers.solid.ecmd.benchmark;
+
+import net.minecraft.block.Blocks;
+import net.minecraft.block.pattern.CachedBlockPosition;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.*;
+import pers.solid.ecmd.predicate.block.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * 测试方块谓词在合成的区块段上的速度，并比较编译前后的结果。标签在无服务器的环境中没有绑定，因此不测试方块标签谓词。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockPredicateBenchmark {
+  @Param({"simple", "id_contain", "any", "not"})
+  public String predicateType;
+  @Param({"false", "true"})
+  public boolean compiled;
+  private BlockPredicate predicate;
+  private CachedBlockPosition[] positions;
+
+  @Setup
+  public void setup() {
+    Headless.bootstrap();
+    final SimpleBlockPredicate stone = new SimpleBlockPredicate(Blocks.STONE, List.of());
+    final IdContainBlockPredicate idContain = new IdContainBlockPredicate(Pattern.compile("stair|slab"));
+    predicate = switch (predicateType) {
+      case "simple" -> stone;
+      case "id_contain" -> idContain;
+      case "any" -> new AnyBlockPredicate(List.of(stone, idContain, new SimpleBlockPredicate(Blocks.DIRT, List.of())));
+      case "not" -> new NegatingBlockPredicate(idContain);
+      default -> throw new IllegalArgumentException(predicateType);
+    };
+    if (compiled) {
+      predicate = CompiledBlockPredicate.of(predicate);
+    }
+    final Headless.SyntheticBlocks blocks = new Headless.SyntheticBlocks(new BlockBox(0, 0, 0, 63, 63, 63), Headless.samplePalette(), 0);
+    positions = BlockPos.stream(blocks.getBox()).map(BlockPos::toImmutable).map(blocks::cachedBlockPosition).toArray(CachedBlockPosition[]::new);
+  }
+
+  @Benchmark
+  public int test() {
+    int matches = 0;
+    for (CachedBlockPosition position : positions) {
+      if (predicate.test(position)) {
+        matches++;
+      }
+    }
+    return matches;
+  }
+}
@@ -0,0 +1,97 @@
+package pers.solid.ecmd.benchmark;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.pattern.CachedBlockPosition;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.util.math.random.Random;
+import net.minecraft.world.chunk.PalettedContainer;
+
+import java.util.List;
+
+/**
+ * 性能测试所使用的、不需要启动服务器的环境。方块数据存储在合成的 {@link PalettedContainer} 中，与区块段的存储方式相同。
+ */
+public final class Headless {
+  private static boolean bootstrapped;
+
+  private Headless() {
+  }
+
+  /**
+   * 初始化注册表，使方块、方块状态和标签可以使用。
+   */
+  public static synchronized void bootstrap() {
+    if (!bootstrapped) {
+      SharedConstants.createGameVersion();
+      Bootstrap.initialize();
+      bootstrapped = true;
+    }
+  }
+
+  /**
+   * 一些常见的方块状态，用于填充合成的区块段。
+   */
+  public static List<BlockState> samplePalette() {
+    return List.of(
+        Blocks.AIR.getDefaultState(),
+        Blocks.STONE.getDefaultState(),
+        Blocks.DIRT.getDefaultState(),
+        Blocks.GRASS_BLOCK.getDefaultState(),
+        Blocks.OAK_LOG.getDefaultState(),
+        Blocks.OAK_STAIRS.getDefaultState(),
+        Blocks.SPRUCE_SLAB.getDefaultState(),
+        Blocks.WATER.getDefaultState(),
+        Blocks.COBBLESTONE_WALL.getDefaultState(),
+        Blocks.REDSTONE_WIRE.getDefaultState());
+  }
+
+  /**
+   * 按区块段存储方块状态的合成世界。
+   */
+  public static final class SyntheticBlocks {
+    private final Long2ObjectMap<PalettedContainer<BlockState>> sections = new Long2ObjectOpenHashMap<>();
+    private final BlockBox box;
+
+    /**
+     * 用伪随机的方块状态填充指定的范围。
+     */
+    public SyntheticBlocks(BlockBox box, List<BlockState> palette, long seed) {
+      this.box = box;
+      final Random random = Random.create(seed);
+      for (BlockPos blockPos : BlockPos.iterate(box.getMinX(), box.getMinY(), box.getMinZ(), box.getMaxX(), box.getMaxY(), box.getMaxZ())) {
+        final PalettedContainer<BlockState> section = sections.computeIfAbsent(ChunkSectionPos.toLong(blockPos), l -> new PalettedContainer<>(Block.STATE_IDS, Blocks.AIR.getDefaultState(), PalettedContainer.PaletteProvider.BLOCK_STATE));
+        section.set(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15, palette.get(random.nextInt(palette.size())));
+      }
+    }
+
+    public BlockBox getBox() {
+      return box;
+    }
+
+    public BlockState getBlockState(BlockPos blockPos) {
+      final PalettedContainer<BlockState> section = sections.get(ChunkSectionPos.toLong(blockPos));
+      return section == null ? Blocks.VOID_AIR.getDefaultState() : section.get(blockPos.getX() & 15, blockPos.getY() & 15, blockPos.getZ() & 15);
+    }
+
+    /**
+     * 返回一个使用合成数据的 {@link CachedBlockPosition}，不会访问世界，因此只能用于只依赖方块状态的谓词。
+     */
+    public CachedBlockPosition cachedBlockPosition(BlockPos blockPos) {
+      final BlockState blockState = getBlockState(blockPos);
+      return new CachedBlockPosition(null, blockPos, false) {
+        @Override
+        public BlockState getBlockState() {
+          return blockState;
+        }
+      };
+    }
+  }
+}
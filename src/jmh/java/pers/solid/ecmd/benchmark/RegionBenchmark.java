@@ -0,0 +1,70 @@
+package pers.solid.ecmd.benchmark;
+
+import net.minecraft.util.math.Vec3d;
+import net.minecraft.util.math.Vec3i;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import pers.solid.ecmd.region.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 测试各类区域迭代所有坐标的速度。{@code active_region} 和 {@code builder} 依赖玩家的状态，不属于固定的区域，因此不进行测试。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegionBenchmark {
+  @Param({"single", "cuboid", "sphere", "intersect", "union", "outline", "cylinder", "hollow_cylinder", "cuboid_outline", "cuboid_wall", "outwards"})
+  public String type;
+  @Param({"32"})
+  public int size;
+  private Region region;
+
+  @Setup
+  public void setup() throws Exception {
+    Headless.bootstrap();
+    final Vec3d center = new Vec3d(0.5, 64.5, 0.5);
+    final BlockCuboidRegion cuboid = new BlockCuboidRegion(-size, 64 - size, -size, size, 64 + size, size);
+    final SphereRegion sphere = new SphereRegion(size, center);
+    final CylinderRegion cylinder = new CylinderRegion(size, size * 2, center);
+    region = switch (type) {
+      case "single" -> new SingleBlockPosRegion(new Vec3i(0, 64, 0));
+      case "cuboid" -> cuboid;
+      case "sphere" -> sphere;
+      case "intersect" -> new IntersectRegion(List.<Region>of(cuboid, sphere.moved(new Vec3d(size / 2d, 0, 0))));
+      case "union" -> new UnionRegion(List.<Region>of(sphere, sphere.moved(new Vec3d(size, 0, 0))));
+      case "outline" -> OutlineRegion.of(sphere, OutlineRegion.OutlineTypes.OUTLINE);
+      case "cylinder" -> cylinder;
+      case "hollow_cylinder" -> new HollowCylinderRegion(cylinder, OutlineRegion.OutlineTypes.OUTLINE);
+      case "cuboid_outline" -> new CuboidOutlineRegion(cuboid, 2);
+      case "cuboid_wall" -> new CuboidWallRegion(cuboid, 2);
+      case "outwards" -> new OutwardsRegion(new Vec3i(0, 64, 0), size, size, size);
+      default -> throw new IllegalArgumentException(type);
+    };
+  }
+
+  @Benchmark
+  public void stream(Blackhole blackhole) {
+    region.stream().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void streamByChunkSection(Blackhole blackhole) {
+    region.streamByChunkSection().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public void longStreamByChunkSection(Blackhole blackhole) {
+    region.longStreamByChunkSection().forEach(blackhole::consume);
+  }
+
+  @Benchmark
+  public long numberOfBlocksAffected() {
+    return region.numberOfBlocksAffected();
+  }
+}
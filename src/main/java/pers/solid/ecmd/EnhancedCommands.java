@@ -42,7 +42,7 @@ public class EnhancedCommands implements ModInitializer {
     // 注册服务器运行任务的事件
     ServerTickEvents.END_SERVER_TICK.register(new Identifier(MOD_ID, "tick_iterator_task"), server -> {
       server.getProfiler().push("enhanced_commands:tick_iterator_task");
-      ((ThreadExecutorExtension) server).ec_advanceTasks();
+      ((ThreadExecutorExtension) server).ec_advanceTasks(server.getProfiler());
       server.getProfiler().pop();
     });
   }
@@ -16,7 +16,7 @@ public class EnhancedCommandsClient implements ClientModInitializer {
     // 注册客户端运行任务的事件
     ClientTickEvents.END_CLIENT_TICK.register(new Identifier(MOD_ID, "tick_iterator_task"), client -> {
       client.getProfiler().push("enhanced_commands:tick_iterator_task");
-      ((ThreadExecutorExtension) client).ec_advanceTasks();
+      ((ThreadExecutorExtension) client).ec_advanceTasks(client.getProfiler());
       client.getProfiler().pop();
     });
   }
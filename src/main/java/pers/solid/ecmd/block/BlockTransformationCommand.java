@@ -100,18 +100,22 @@ public interface BlockTransformationCommand {
     Region activeRegion = transformsRegion && player != null ? transformRegion(region) : null;
 
     final BlockTransformationTask task = builder.build();
-    if (!immediately && region.numberOfBlocksAffected() > 16384) {
-      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(getIteratorTaskName(region), Iterators.concat(task.transformBlocks().getSpeedAdjustedTask(), IterateUtils.singletonPeekingIterator(() -> {
+    final long blocksAffected = region.numberOfBlocksAffected();
+    if (!immediately && blocksAffected > 16384) {
+      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(getIteratorTaskName(region), Iterators.concat(task.transformBlocks().getTask(), IterateUtils.singletonPeekingIterator(() -> {
         if (activeRegion != null) {
           ((ServerPlayerEntityExtension) player).ec$setActiveRegion(activeRegion);
         }
         notifyUnloadedPos(task, unloadedPosBehavior, source);
         notifyCompletion(source, task.getAffectedBlocks(), entitiesToAffect == null ? -1 : task.getAffectedEntities());
-      })));
-      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(region.numberOfBlocksAffected())).formatted(Formatting.YELLOW), true);
+      })))
+          .setOwner(source)
+          .setExpectedSteps(blocksAffected)
+          .setChangedCounter(task::getAffectedBlocks);
+      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(blocksAffected)).formatted(Formatting.YELLOW), true);
       return 1;
     } else {
-      IterateUtils.exhaust(task.transformBlocks().getImmediateTask());
+      IterateUtils.exhaust(task.transformBlocks().getTask());
       notifyUnloadedPos(task, unloadedPosBehavior, source);
       final int affectedBlocks = task.getAffectedBlocks();
       final int affectedEntities = task.getAffectedEntities();
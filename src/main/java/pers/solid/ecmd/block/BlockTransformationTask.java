@@ -5,7 +5,6 @@ import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import it.unimi.dsi.fastutil.longs.*;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
-import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.entity.Entity;
 import net.minecraft.nbt.NbtCompound;
@@ -20,17 +19,18 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.command.FillReplaceCommand;
 import pers.solid.ecmd.function.block.BlockFunction;
+import pers.solid.ecmd.function.block.MemoizedBlockFunction;
 import pers.solid.ecmd.function.block.SimpleBlockFunction;
 import pers.solid.ecmd.predicate.block.BlockPredicate;
+import pers.solid.ecmd.predicate.block.CompiledBlockPredicate;
 import pers.solid.ecmd.region.Region;
 import pers.solid.ecmd.util.LoadUtil;
 import pers.solid.ecmd.util.UnloadedPosBehavior;
-import pers.solid.ecmd.util.iterator.IterateUtils;
-import pers.solid.ecmd.util.mixin.MixinShared;
 
 import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public class BlockTransformationTask {
@@ -64,9 +64,9 @@ public class BlockTransformationTask {
     this.region = region;
     this.flags = flags;
     this.modFlags = modFlags;
-    this.affectsOnly = affectsOnly;
-    this.transformsOnly = transformsOnly;
-    this.remaining = remaining;
+    this.affectsOnly = affectsOnly == null ? null : CompiledBlockPredicate.of(affectsOnly);
+    this.transformsOnly = transformsOnly == null ? null : CompiledBlockPredicate.of(transformsOnly);
+    this.remaining = remaining == null ? null : MemoizedBlockFunction.of(remaining);
     this.entitiesToAffect = entitiesToAffect;
     this.interpolation = interpolation;
     this.unloadedPosBehavior = unloadedPosBehavior;
@@ -93,19 +93,20 @@ public class BlockTransformationTask {
     }
   }
 
-  public Stream<BlockPos> modifyStream(Stream<BlockPos> stream) {
+  public LongStream modifyStream(LongStream stream) {
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
     if (unloadedPosBehavior == UnloadedPosBehavior.SKIP) {
-      stream = stream.filter(blockPos -> {
-        final boolean chunkLoaded = world.isChunkLoaded(blockPos);
+      stream = stream.filter(pos -> {
+        final boolean chunkLoaded = world.isChunkLoaded(mutable.set(pos));
         if (!chunkLoaded) hasUnloadedPos = true;
         return chunkLoaded;
       });
     } else if (unloadedPosBehavior == UnloadedPosBehavior.BREAK) {
-      stream = stream.peek(blockPos -> {
-        final boolean chunkLoaded = world.isChunkLoaded(blockPos);
+      stream = stream.peek(pos -> {
+        final boolean chunkLoaded = world.isChunkLoaded(mutable.set(pos));
         if (!chunkLoaded) {
           hasUnloadedPos = true;
-          throw new UnloadedPosException(blockPos);
+          throw new UnloadedPosException(BlockPos.fromLong(pos));
         }
       });
     }
@@ -118,40 +119,42 @@ public class BlockTransformationTask {
     }
 
     // 被转换走的方块在转换前的坐标
-    final Long2ReferenceMap<BlockState> posTransformedOut = new Long2ReferenceOpenHashMap<>();
+    final SectionedBlockStateMap posTransformedOut = new SectionedBlockStateMap();
     // 转换后的坐标和转换后的方块
-    final Long2ReferenceMap<BlockState> transformedStates = new Long2ReferenceLinkedOpenHashMap<>();
+    final SectionedBlockStateMap transformedStates = new SectionedBlockStateMap();
     // 转换后的坐标和 NBT，NBT 一般不进行转换
     final Long2ReferenceMap<NbtCompound> nbts = new Long2ReferenceOpenHashMap<>();
 
     final BlockPos.Mutable mutable = new BlockPos.Mutable();
-    final Iterable<Void> storeTransformed = () -> modifyStream(modifyStream(region.stream())
-        .map(blockPos -> {
-          final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, blockPos, unloadedPosBehavior == UnloadedPosBehavior.FORCE);
+    final BulkBlockWriter writer = new BulkBlockWriter(world, flags, modFlags);
+    final BlockPos.Mutable sourcePos = new BlockPos.Mutable();
+    final Iterable<Void> storeTransformed = () -> modifyStream(modifyStream(region.longStreamByChunkSection())
+        .map(pos -> {
+          final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, sourcePos.set(pos), unloadedPosBehavior == UnloadedPosBehavior.FORCE);
           if ((transformsOnly == null || transformsOnly.test(cachedBlockPosition)) && cachedBlockPosition.getBlockState() != null) {
             final BlockState blockState = cachedBlockPosition.getBlockState();
-            posTransformedOut.put(blockPos.asLong(), blockState);
-            final BlockPos transformedBlockPos = mutable.set(blockPosTransformer.apply(blockPos));
-            transformedStates.put(transformedBlockPos.asLong(), blockStateTransformer.apply(blockState));
+            posTransformedOut.put(pos, blockState);
+            final long transformedPos = mutable.set(blockPosTransformer.apply(sourcePos)).asLong();
+            transformedStates.put(transformedPos, blockStateTransformer.apply(blockState));
             if (cachedBlockPosition.getBlockEntity() != null) {
-              nbts.put(transformedBlockPos.asLong(), cachedBlockPosition.getBlockEntity().createNbt());
+              nbts.put(transformedPos, cachedBlockPosition.getBlockEntity().createNbt());
             }
 
-            return transformedBlockPos;
+            return transformedPos;
           } else {
             // 充 null 值表示未匹配到值，或者是未加载的区块。
-            posTransformedOut.put(blockPos.asLong(), null);
+            posTransformedOut.put(pos, null);
 
-            return blockPos.toImmutable();
+            return pos;
           }
         }))
-        .map(blockPos -> (Void) null).iterator();
+        .mapToObj(pos -> (Void) null).iterator();
 
     final Iterable<Void> collectMatchingTransformed;
-    final LongSet matchingBlockPos;
+    final @Nullable LongSet matchingBlockPos;
     if (affectsOnly != null) {
       matchingBlockPos = new LongOpenHashSet();
-      collectMatchingTransformed = () -> transformedStates.keySet().longStream().mapToObj(longValue -> {
+      collectMatchingTransformed = () -> transformedStates.keyStream().mapToObj(longValue -> {
         mutable.set(longValue);
         if (affectsOnly.test(new CachedBlockPosition(world, mutable, unloadedPosBehavior == UnloadedPosBehavior.FORCE))) {
           matchingBlockPos.add(longValue);
@@ -159,29 +162,25 @@ public class BlockTransformationTask {
         return (Void) null;
       }).iterator();
     } else {
-      matchingBlockPos = transformedStates.keySet();
+      matchingBlockPos = null;
       collectMatchingTransformed = Collections.emptyList();
     }
 
-    Iterable<Long2ReferenceMap.Entry<BlockState>> releaseTransformedPos = () -> transformedStates.long2ReferenceEntrySet().iterator();
-    if (affectsOnly != null) {
-      releaseTransformedPos = Iterables.filter(releaseTransformedPos, entry -> matchingBlockPos.contains(entry.getLongKey()));
-    }
-    final Iterable<Void> releaseTransformed = Iterables.transform(releaseTransformedPos,
-        entry -> {
-          final BlockPos transformedBlockPos = mutable.set(entry.getLongKey());
-          final BlockState transformedState = entry.getValue();
-          boolean affected = MixinShared.setBlockStateWithModFlags(world, transformedBlockPos, transformedState, flags, modFlags);
-          final NbtCompound nbtCompound = nbts.get(entry.getLongKey());
-          final @Nullable BlockEntity transformedBlockEntity;
-          if (nbtCompound != null && (transformedBlockEntity = world.getBlockEntity(transformedBlockPos)) != null) {
-            transformedBlockEntity.readNbt(nbtCompound);
-            affected = true;
-          }
-          if (affected) affectedBlocks++;
+    final Iterable<Void> releaseTransformed = () -> {
+      LongStream releaseTransformedPos = transformedStates.keyStream();
+      if (matchingBlockPos != null) {
+        releaseTransformedPos = releaseTransformedPos.filter(matchingBlockPos::contains);
+      }
+      return releaseTransformedPos.mapToObj(longValue -> {
+        final BlockPos transformedBlockPos = mutable.set(longValue);
+        final BlockState transformedState = transformedStates.get(longValue);
+        if (writer.setBlockState(transformedBlockPos, transformedState, nbts.get(longValue))) {
+          affectedBlocks++;
+        }
 
-          return null;
-        });
+        return (Void) null;
+      }).iterator();
+    };
 
     final Iterable<Void> transformEntities;
     if (entitiesToAffect != null) {
@@ -209,27 +208,27 @@ public class BlockTransformationTask {
     if (remaining != null) {
       if (affectsOnly != null) {
         final LongList affectedRemaining = new LongArrayList();
-        collectMatchingRemaining = () -> region.stream()
-            .filter(blockPos -> posTransformedOut.get(blockPos.asLong()) != null && !transformedStates.containsKey(blockPos.asLong()))
-            .map(blockPos -> {
-              if (affectsOnly.test(new CachedBlockPosition(world, blockPos, false))) {
-                affectedRemaining.add(blockPos.asLong());
+        collectMatchingRemaining = () -> region.longStreamByChunkSection()
+            .filter(pos -> posTransformedOut.get(pos) != null && !transformedStates.containsKey(pos))
+            .mapToObj(pos -> {
+              if (affectsOnly.test(new CachedBlockPosition(world, mutable.set(pos), false))) {
+                affectedRemaining.add(pos);
               }
               return (Void) null;
             }).iterator();
         setRemaining = () -> affectedRemaining.longStream()
             .mapToObj(blockPos -> {
-              if (remaining.setBlock(world, mutable.set(blockPos), flags, modFlags)) {
+              if (remaining.setBlock(writer, mutable.set(blockPos))) {
                 affectedBlocks++;
               }
               return (Void) null;
             }).iterator();
       } else {
         collectMatchingRemaining = Collections.emptyList();
-        setRemaining = () -> region.stream()
-            .filter(blockPos -> posTransformedOut.get(blockPos.asLong()) != null && !transformedStates.containsKey(blockPos.asLong()))
-            .map(blockPos -> {
-              if (remaining.setBlock(world, blockPos, flags, modFlags)) {
+        setRemaining = () -> region.longStreamByChunkSection()
+            .filter(pos -> posTransformedOut.get(pos) != null && !transformedStates.containsKey(pos))
+            .mapToObj(pos -> {
+              if (remaining.setBlock(writer, mutable.set(pos))) {
                 affectedBlocks++;
               }
               return (Void) null;
@@ -254,14 +253,9 @@ public class BlockTransformationTask {
                   final long nearestOriginalLong = nearestOriginal.get().asLong();
                   if (posTransformedOut.get(nearestOriginalLong) != null) {
                     final BlockState state = posTransformedOut.get(nearestOriginalLong);
-                    boolean affected = MixinShared.setBlockStateWithModFlags(world, i, state, flags, modFlags);
-                    final NbtCompound nbtCompound = nbts.get(i.asLong());
-                    final @Nullable BlockEntity transformedBlockEntity;
-                    if (nbtCompound != null && (transformedBlockEntity = world.getBlockEntity(i)) != null) {
-                      transformedBlockEntity.readNbt(nbtCompound);
-                      affected = true;
+                    if (writer.setBlockState(i, state, nbts.get(i.asLong()))) {
+                      affectedBlocks++;
                     }
-                    if (affected) affectedBlocks++;
                     return true;
                   }
                 }
@@ -282,19 +276,8 @@ public class BlockTransformationTask {
 
   public record TaskSeries(Iterable<Void> storeTransformed, Iterable<Void> collectMatchingTransformed, Iterable<Void> releaseTransformed, Iterable<Void> transformEntities, Iterable<Void> collectMatchingRemaining, Iterable<Void> setRemaining, Iterable<Void> addInterpolation) {
     // 使用 iterable 而非 iterator 是为了惰性计算，有些迭代器所使用的集合是在之前的迭代器中添加的，为了避免出现错误，应该在完成了添加集合元素之后，再调用集合的 iterator() 方法。
-    public Iterator<Void> getSpeedAdjustedTask() {
-      return UnloadedPosException.catching(Iterables.concat(
-          IterateUtils.batchAndSkip(storeTransformed, 16384, 1),
-          IterateUtils.batchAndSkip(collectMatchingTransformed, 16384, 1),
-          IterateUtils.batchAndSkip(releaseTransformed, 32768, 15),
-          IterateUtils.batchAndSkip(transformEntities, 16384, 7),
-          IterateUtils.batchAndSkip(collectMatchingRemaining, 16384, 1),
-          IterateUtils.batchAndSkip(setRemaining, 32768, 15),
-          IterateUtils.batchAndSkip(addInterpolation, 32768, 15)
-      ).iterator());
-    }
-
-    public Iterator<Void> getImmediateTask() {
+    // 作为计划任务运行时，每一刻运行的进展数量由 IteratorTask 根据实际耗费的时间进行调整。
+    public Iterator<Void> getTask() {
       return UnloadedPosException.catching(Iterables.concat(storeTransformed, collectMatchingTransformed, releaseTransformed, transformEntities, collectMatchingRemaining, setRemaining, addInterpolation).iterator());
     }
   }
@@ -0,0 +1,144 @@
+package pers.solid.ecmd.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.solid.ecmd.command.FillReplaceCommand;
+import pers.solid.ecmd.util.mixin.MixinShared;
+
+/**
+ * 用于大量设置方块的工具，会缓存当前所在的区块和区块段，因此在按区块段的顺序依次设置方块时效率更高。
+ * <p>
+ * 当 {@code flags} 和 {@code modFlags} 表示强制放置方块（即 {@code force=true}，不更新相邻方块，也不调用 {@link BlockState#onBlockAdded} 和 {@link BlockState#onStateReplaced}）时，会绕过 {@link World#setBlockState(BlockPos, BlockState, int)}，直接修改区块段中的调色板数据，之后仅完成高度图、光照、监听器和兴趣点的更新。通知监听器时，原版的 {@link net.minecraft.server.world.ChunkHolder} 会将同一区块段中的修改合并为一个区块段更新数据包发送给客户端。涉及方块实体的位置，以及其他的 {@code flags}，仍然使用 {@link MixinShared#setBlockStateWithModFlags}，以保持原有的行为。
+ */
+public final class BulkBlockWriter {
+  private static final Heightmap.Type[] HEIGHTMAP_TYPES = {Heightmap.Type.MOTION_BLOCKING, Heightmap.Type.MOTION_BLOCKING_NO_LEAVES, Heightmap.Type.OCEAN_FLOOR, Heightmap.Type.WORLD_SURFACE};
+  private final @NotNull World world;
+  private final int flags;
+  private final int modFlags;
+  private final boolean writesDirectly;
+  private @Nullable WorldChunk chunk;
+  private @Nullable ChunkSection section;
+  private int sectionIndex;
+  /**
+   * 缓存区块时的世界时间。区块在两个刻之间可能被卸载，因此缓存的区块只在同一刻内使用。
+   */
+  private long cachedTime;
+
+  public BulkBlockWriter(@NotNull World world, int flags, int modFlags) {
+    this.world = world;
+    this.flags = flags;
+    this.modFlags = modFlags;
+    this.writesDirectly = canWriteDirectly(world, flags, modFlags);
+  }
+
+  /**
+   * 判断在指定的 {@code flags} 和 {@code modFlags} 下，是否可以绕过 {@link World#setBlockState(BlockPos, BlockState, int)} 直接修改区块段。只有在不会触发任何方块更新的情况下，才可以这么做。
+   */
+  public static boolean canWriteDirectly(World world, int flags, int modFlags) {
+    final int suppressingFlags = FillReplaceCommand.SUPPRESS_INITIAL_CHECK_FLAG | FillReplaceCommand.SUPPRESS_REPLACED_CHECK_FLAG;
+    return world instanceof ServerWorld
+        && !world.isDebugWorld()
+        && (flags & Block.FORCE_STATE) != 0
+        && (flags & Block.NOTIFY_NEIGHBORS) == 0
+        && (modFlags & suppressingFlags) == suppressingFlags;
+  }
+
+  public @NotNull World getWorld() {
+    return world;
+  }
+
+  public int getFlags() {
+    return flags;
+  }
+
+  public int getModFlags() {
+    return modFlags;
+  }
+
+  /**
+   * 设置方块，并返回方块是否被修改。
+   */
+  public boolean setBlockState(BlockPos pos, BlockState state) {
+    if (!writesDirectly) {
+      return MixinShared.setBlockStateWithModFlags(world, pos, state, flags, modFlags);
+    }
+    if (world.isOutOfHeightLimit(pos)) {
+      return false;
+    }
+    final ChunkSection section = getSection(pos);
+    final int x = pos.getX() & 15, y = pos.getY() & 15, z = pos.getZ() & 15;
+    final BlockState oldState = section.getBlockState(x, y, z);
+    if (oldState == state) {
+      return false;
+    } else if (oldState.hasBlockEntity() || state.hasBlockEntity()) {
+      // 方块实体的创建、移除和计刻器的更新仍由原版处理。
+      return MixinShared.setBlockStateWithModFlags(world, pos, state, flags, modFlags);
+    }
+
+    final boolean wasEmpty = section.isEmpty();
+    section.setBlockState(x, y, z, state);
+    final WorldChunk chunk = this.chunk;
+    for (Heightmap.Type type : HEIGHTMAP_TYPES) {
+      chunk.getHeightmap(type).trackUpdate(x, pos.getY(), z, state);
+    }
+    chunk.setNeedsSaving(true);
+
+    final boolean isEmpty = section.isEmpty();
+    if (wasEmpty != isEmpty) {
+      world.getChunkManager().getLightingProvider().setSectionStatus(pos, isEmpty);
+    }
+    if ((flags & Block.SKIP_LIGHTING_UPDATES) == 0) {
+      if (state.getOpacity(world, pos) != oldState.getOpacity(world, pos) || state.getLuminance() != oldState.getLuminance() || state.hasSidedTransparency() || oldState.hasSidedTransparency()) {
+        world.getChunkManager().getLightingProvider().checkBlock(pos);
+      }
+    }
+    if ((flags & Block.NOTIFY_LISTENERS) != 0) {
+      world.updateListeners(pos, oldState, state, flags);
+    }
+    world.onBlockChanged(pos, oldState, state);
+    return true;
+  }
+
+  /**
+   * 设置方块，并在设置后将 NBT 数据应用到方块实体（如有）。返回方块或者方块实体是否被修改。
+   */
+  public boolean setBlockState(BlockPos pos, BlockState state, @Nullable NbtCompound blockEntityData) {
+    boolean result = setBlockState(pos, state);
+    if (blockEntityData != null) {
+      final BlockEntity blockEntity = world.getBlockEntity(pos);
+      if (blockEntity != null) {
+        blockEntity.readNbt(blockEntityData);
+        result = true;
+      }
+    }
+    return result;
+  }
+
+  private @NotNull ChunkSection getSection(BlockPos pos) {
+    final int chunkX = ChunkSectionPos.getSectionCoord(pos.getX());
+    final int chunkZ = ChunkSectionPos.getSectionCoord(pos.getZ());
+    final long time = world.getTime();
+    if (chunk == null || cachedTime != time || chunk.getPos().x != chunkX || chunk.getPos().z != chunkZ) {
+      chunk = world.getChunk(chunkX, chunkZ);
+      cachedTime = time;
+      section = null;
+    }
+    final int index = chunk.getSectionIndex(pos.getY());
+    if (section == null || index != sectionIndex) {
+      section = chunk.getSection(index);
+      sectionIndex = index;
+    }
+    return section;
+  }
+}
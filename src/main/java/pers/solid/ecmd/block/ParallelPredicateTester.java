@@ -0,0 +1,134 @@
+package pers.solid.ecmd.block;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.block.pattern.CachedBlockPosition;
+import net.minecraft.util.Util;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldView;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.PalettedContainer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.solid.ecmd.predicate.block.BlockPredicate;
+import pers.solid.ecmd.util.iterator.IterateUtils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 在服务器线程之外并行地测试方块谓词。坐标会按照所在的区块段分组，服务器线程为每个区块段复制一份方块状态的快照，并提交到工作线程中进行测试，因此工作线程不会访问世界。只有 {@linkplain BlockPredicate#isThreadSafe() 线程安全}的谓词才可以这样测试。
+ * <p>
+ * 测试的结果按照提交的顺序返回，与按顺序测试时的结果相同。
+ */
+public final class ParallelPredicateTester {
+  private final @NotNull World world;
+  private final @NotNull BlockPredicate predicate;
+  private final List<CompletableFuture<LongList>> results = new ArrayList<>();
+  private @Nullable LongArrayList batch;
+  private long batchSectionKey;
+
+  public ParallelPredicateTester(@NotNull World world, @NotNull BlockPredicate predicate) {
+    if (!predicate.isThreadSafe()) {
+      throw new IllegalArgumentException("Block predicate is not thread-safe: " + predicate.asString());
+    }
+    this.world = world;
+    this.predicate = predicate;
+  }
+
+  /**
+   * 返回一个迭代器，每次迭代时，在服务器线程中收集一个坐标，并在区块段改变时提交上一个区块段的测试。迭代完成后，所有测试都已经提交。
+   */
+  public Iterator<Void> submitting(LongStream stream) {
+    return Stream.concat(stream.<Void>mapToObj(pos -> {
+      add(pos);
+      return null;
+    }), IterateUtils.<Void>singletonPeekingStream(this::flush)).iterator();
+  }
+
+  /**
+   * 按照提交的顺序返回符合谓词的坐标。如果对应的测试还没有完成，则会等待其完成。
+   */
+  public LongStream matchingPositions() {
+    return results.stream().flatMapToLong(future -> future.join().longStream());
+  }
+
+  private void add(long pos) {
+    final long sectionKey = ChunkSectionPos.fromBlockPos(pos);
+    if (batch != null && sectionKey != batchSectionKey) {
+      flush();
+    }
+    if (batch == null) {
+      batch = new LongArrayList();
+      batchSectionKey = sectionKey;
+    }
+    batch.add(pos);
+  }
+
+  private void flush() {
+    if (batch == null || batch.isEmpty()) {
+      batch = null;
+      return;
+    }
+    final LongArrayList positions = batch;
+    final PalettedContainer<BlockState> snapshot = takeSnapshot(BlockPos.fromLong(positions.getLong(0)));
+    batch = null;
+    results.add(CompletableFuture.supplyAsync(() -> test(positions, snapshot), Util.getMainWorkerExecutor()));
+  }
+
+  /**
+   * 在服务器线程中复制坐标所在的区块段中的方块状态。若坐标在世界的高度范围之外，则返回 {@code null}。与 {@link CachedBlockPosition} 一样，如果区块尚未加载，会加载该区块。
+   */
+  private @Nullable PalettedContainer<BlockState> takeSnapshot(BlockPos blockPos) {
+    if (world.isOutOfHeightLimit(blockPos)) {
+      return null;
+    }
+    final Chunk chunk = world.getChunk(blockPos);
+    return chunk.getSection(chunk.getSectionIndex(blockPos.getY())).getBlockStateContainer().copy();
+  }
+
+  private LongList test(LongArrayList positions, @Nullable PalettedContainer<BlockState> snapshot) {
+    final LongList matching = new LongArrayList();
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    for (int i = 0; i < positions.size(); i++) {
+      final long pos = positions.getLong(i);
+      mutable.set(pos);
+      final BlockState blockState = snapshot == null ? Blocks.VOID_AIR.getDefaultState() : snapshot.get(mutable.getX() & 15, mutable.getY() & 15, mutable.getZ() & 15);
+      if (predicate.test(new SnapshotBlockPosition(world, mutable, blockState))) {
+        matching.add(pos);
+      }
+    }
+    return matching;
+  }
+
+  /**
+   * 使用快照中的方块状态的 {@link CachedBlockPosition}，不会访问世界。
+   */
+  private static final class SnapshotBlockPosition extends CachedBlockPosition {
+    private final BlockState blockState;
+
+    private SnapshotBlockPosition(WorldView world, BlockPos pos, BlockState blockState) {
+      super(world, pos, false);
+      this.blockState = blockState;
+    }
+
+    @Override
+    public BlockState getBlockState() {
+      return blockState;
+    }
+
+    @Override
+    public @Nullable BlockEntity getBlockEntity() {
+      return null;
+    }
+  }
+}
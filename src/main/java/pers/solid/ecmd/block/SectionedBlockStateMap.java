@@ -0,0 +1,205 @@
+package pers.solid.ecmd.block;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 以坐标为键、方块状态为值的紧凑映射，用于在转换、堆叠等操作中暂存大量方块。
+ * <p>
+ * 与原版的 {@link net.minecraft.world.chunk.PalettedContainer} 类似，数据按区块段存储，每个区块段有自己的调色板，并使用 {@code byte[]} 存储 4096 个位置的调色板索引，在调色板超过 255 项时改用 {@code char[]}。因此，每个方块通常只占用一到两个字节，而 {@link it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap} 中每个条目需要二十个字节左右。
+ * <p>
+ * 值可以为 {@code null}，此时 {@link #containsKey} 返回 {@code true}，但 {@link #get} 返回 {@code null}。区块段按照首次放入的顺序迭代，同一区块段内的坐标按照 y、z、x 的顺序迭代。
+ */
+public final class SectionedBlockStateMap {
+  private static final int SECTION_VOLUME = 4096;
+  private final Long2ObjectLinkedOpenHashMap<Section> sections = new Long2ObjectLinkedOpenHashMap<>();
+  private int size;
+  private long lastSectionKey;
+  private @Nullable Section lastSection;
+
+  private static int indexOf(int x, int y, int z) {
+    return (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+  }
+
+  private @Nullable Section getSection(long pos, boolean create) {
+    final long sectionKey = ChunkSectionPos.asLong(ChunkSectionPos.getSectionCoord(BlockPos.unpackLongX(pos)), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongY(pos)), ChunkSectionPos.getSectionCoord(BlockPos.unpackLongZ(pos)));
+    if (lastSection != null && lastSectionKey == sectionKey) {
+      return lastSection;
+    }
+    Section section = sections.get(sectionKey);
+    if (section == null) {
+      if (!create) return null;
+      section = new Section();
+      sections.put(sectionKey, section);
+    }
+    lastSectionKey = sectionKey;
+    lastSection = section;
+    return section;
+  }
+
+  private static int indexOf(long pos) {
+    return indexOf(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos));
+  }
+
+  public void put(long pos, @Nullable BlockState state) {
+    if (getSection(pos, true).put(indexOf(pos), state)) {
+      size++;
+    }
+  }
+
+  public void put(BlockPos pos, @Nullable BlockState state) {
+    put(pos.asLong(), state);
+  }
+
+  public boolean containsKey(long pos) {
+    final Section section = getSection(pos, false);
+    return section != null && section.getRaw(indexOf(pos)) != 0;
+  }
+
+  public boolean containsKey(BlockPos pos) {
+    return containsKey(pos.asLong());
+  }
+
+  public @Nullable BlockState get(long pos) {
+    final Section section = getSection(pos, false);
+    return section == null ? null : section.get(indexOf(pos));
+  }
+
+  public @Nullable BlockState get(BlockPos pos) {
+    return get(pos.asLong());
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * 返回所有坐标（以 {@link BlockPos#asLong()} 的形式）的迭代器。迭代过程中不应修改此映射。
+   */
+  public LongIterator keyIterator() {
+    return new KeyIterator();
+  }
+
+  public LongStream keyStream() {
+    return StreamSupport.longStream(Spliterators.spliterator(keyIterator(), size, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.SIZED | Spliterator.NONNULL), false);
+  }
+
+  private static final class Section {
+    /**
+     * 调色板，可以包含 {@code null}。存储的索引为调色板中的索引加一，0 表示该位置没有值。
+     */
+    private final List<BlockState> palette = new ArrayList<>();
+    private final Reference2IntMap<BlockState> paletteIds = new Reference2IntOpenHashMap<>();
+    private byte @Nullable [] bytes = new byte[SECTION_VOLUME];
+    private char @Nullable [] chars;
+
+    private Section() {
+      paletteIds.defaultReturnValue(-1);
+    }
+
+    private int getRaw(int index) {
+      return bytes != null ? bytes[index] & 0xFF : chars[index];
+    }
+
+    private @Nullable BlockState get(int index) {
+      final int raw = getRaw(index);
+      return raw == 0 ? null : palette.get(raw - 1);
+    }
+
+    /**
+     * 设置指定位置的值，并返回该位置之前是否没有值。
+     */
+    private boolean put(int index, @Nullable BlockState state) {
+      int id = paletteIds.getInt(state);
+      if (id == -1) {
+        id = palette.size();
+        palette.add(state);
+        paletteIds.put(state, id);
+        if (bytes != null && id + 1 > 0xFF) {
+          // 调色板已经无法用一个字节表示，改用两个字节。一个区块段最多只有 4096 种值，因此不会超过 char 的范围。
+          chars = new char[SECTION_VOLUME];
+          for (int i = 0; i < SECTION_VOLUME; i++) {
+            chars[i] = (char) (bytes[i] & 0xFF);
+          }
+          bytes = null;
+        }
+      }
+      final boolean absent = getRaw(index) == 0;
+      if (bytes != null) {
+        bytes[index] = (byte) (id + 1);
+      } else {
+        chars[index] = (char) (id + 1);
+      }
+      return absent;
+    }
+  }
+
+  private final class KeyIterator implements LongIterator {
+    private final ObjectIterator<Long2ObjectMap.Entry<Section>> sectionIterator = sections.long2ObjectEntrySet().fastIterator();
+    private @Nullable Section section;
+    private int sectionX, sectionY, sectionZ;
+    private int nextIndex = SECTION_VOLUME;
+
+    private KeyIterator() {
+      advance();
+    }
+
+    private void advance() {
+      while (true) {
+        if (section != null) {
+          while (nextIndex < SECTION_VOLUME && section.getRaw(nextIndex) == 0) {
+            nextIndex++;
+          }
+          if (nextIndex < SECTION_VOLUME) return;
+        }
+        if (!sectionIterator.hasNext()) {
+          section = null;
+          return;
+        }
+        final Long2ObjectMap.Entry<Section> entry = sectionIterator.next();
+        final long sectionKey = entry.getLongKey();
+        section = entry.getValue();
+        sectionX = ChunkSectionPos.unpackX(sectionKey);
+        sectionY = ChunkSectionPos.unpackY(sectionKey);
+        sectionZ = ChunkSectionPos.unpackZ(sectionKey);
+        nextIndex = 0;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return section != null;
+    }
+
+    @Override
+    public long nextLong() {
+      if (section == null) {
+        throw new NoSuchElementException();
+      }
+      final int index = nextIndex++;
+      final long pos = BlockPos.asLong(ChunkSectionPos.getBlockCoord(sectionX) + (index & 15), ChunkSectionPos.getBlockCoord(sectionY) + (index >> 8), ChunkSectionPos.getBlockCoord(sectionZ) + (index >> 4 & 15));
+      advance();
+      return pos;
+    }
+  }
+}
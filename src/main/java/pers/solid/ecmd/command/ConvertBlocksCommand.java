@@ -28,6 +28,7 @@ import pers.solid.ecmd.extensions.ThreadExecutorExtension;
 import pers.solid.ecmd.function.nbt.CompoundNbtFunction;
 import pers.solid.ecmd.predicate.block.BlockPredicate;
 import pers.solid.ecmd.predicate.block.BlockPredicateArgument;
+import pers.solid.ecmd.predicate.block.CompiledBlockPredicate;
 import pers.solid.ecmd.predicate.block.ConstantBlockPredicate;
 import pers.solid.ecmd.region.Region;
 import pers.solid.ecmd.util.LoadUtil;
@@ -38,9 +39,9 @@ import pers.solid.ecmd.util.bridge.CommandBridge;
 import pers.solid.ecmd.util.iterator.IterateUtils;
 
 import java.util.Iterator;
-import java.util.function.Function;
+import java.util.function.LongFunction;
 import java.util.function.IntFunction;
-import java.util.stream.Stream;
+import java.util.stream.LongStream;
 
 public enum ConvertBlocksCommand implements CommandRegistrationCallback {
   INSTANCE;
@@ -78,8 +79,9 @@ public enum ConvertBlocksCommand implements CommandRegistrationCallback {
     boolean bypassLimit = keywordArgs.getBoolean("bypass_limit");
     UnloadedPosBehavior unloadedPosBehavior = keywordArgs.getArg("unloaded_pos");
     CompoundNbtFunction nbtFunction = keywordArgs.getArg("nbt");
-    if (!bypassLimit && region.numberOfBlocksAffected() > 16383) {
-      throw FillReplaceCommand.REGION_TOO_LARGE.create(region.numberOfBlocksAffected(), 16383);
+    final long blocksAffected = region.numberOfBlocksAffected();
+    if (!bypassLimit && blocksAffected > 16383) {
+      throw FillReplaceCommand.REGION_TOO_LARGE.create(blocksAffected, 16383);
     }
     final ServerWorld world = source.getWorld();
     if (unloadedPosBehavior == UnloadedPosBehavior.REJECT) {
@@ -91,16 +93,17 @@ public enum ConvertBlocksCommand implements CommandRegistrationCallback {
     final Iterator<Void> mainIterator;
     final MutableInt numbersAffected = new MutableInt();
     final MutableBoolean hasUnloaded = new MutableBoolean();
-    Stream<BlockPos> stream = region.stream();
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    LongStream stream = region.longStreamByChunkSection();
     if (unloadedPosBehavior == UnloadedPosBehavior.BREAK) {
       stream = stream.takeWhile(pos -> {
-        final boolean chunkLoaded = world.isChunkLoaded(pos);
+        final boolean chunkLoaded = world.isChunkLoaded(mutable.set(pos));
         if (!chunkLoaded) hasUnloaded.setTrue();
         return chunkLoaded;
       });
     } else if (unloadedPosBehavior == UnloadedPosBehavior.SKIP) {
       stream = stream.filter(pos -> {
-        final boolean chunkLoaded = world.isChunkLoaded(pos);
+        final boolean chunkLoaded = world.isChunkLoaded(mutable.set(pos));
         if (!chunkLoaded) hasUnloaded.setTrue();
         return chunkLoaded;
       });
@@ -111,8 +114,9 @@ public enum ConvertBlocksCommand implements CommandRegistrationCallback {
     final int flags = FillReplaceCommand.getFlags(keywordArgs);
     final int modFlags = FillReplaceCommand.getModFlags(keywordArgs);
     final boolean affectFluid = keywordArgs.getBoolean("affect_fluid");
-    final Function<BlockPos, Void> mapper = blockPos -> {
-      final Entity entity = conversion.getConvertedEntity(world, blockPos, flags, modFlags, affectFluid);
+    final LongFunction<Void> mapper = pos -> {
+      // 转换后的实体可能会保存这个坐标，因此不能使用可变的坐标
+      final Entity entity = conversion.getConvertedEntity(world, BlockPos.fromLong(pos), flags, modFlags, affectFluid);
       if (nbtFunction != null) {
         entity.readNbt(nbtFunction.apply(entity.writeNbt(new NbtCompound())));
       }
@@ -122,31 +126,30 @@ public enum ConvertBlocksCommand implements CommandRegistrationCallback {
     if (predicate == null || predicate instanceof ConstantBlockPredicate) {
       if (predicate == null) {
         if (affectFluid) {
-          stream = stream.filter(blockPos -> {
-            final BlockState blockState = world.getBlockState(blockPos);
+          stream = stream.filter(pos -> {
+            final BlockState blockState = world.getBlockState(mutable.set(pos));
             // 纯流体应该被过滤掉。
             return !blockState.isAir() && blockState != blockState.getFluidState().getBlockState();
           });
         } else {
-          stream = stream.filter(blockPos -> !world.getBlockState(blockPos).isAir());
+          stream = stream.filter(pos -> !world.getBlockState(mutable.set(pos)).isAir());
         }
       }
-      mainIterator = stream.map(mapper)
+      mainIterator = stream.mapToObj(mapper)
           .iterator();
     } else {
+      final BlockPredicate compiledPredicate = CompiledBlockPredicate.of(predicate);
       LongList posThatMatch = new LongArrayList();
-      final BlockPos.Mutable mutable = new BlockPos.Mutable();
-      Iterator<Void> testPosIterator = stream.<Void>map(blockPos -> {
-            final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, blockPos, true);
-            if (predicate.test(cachedBlockPosition)) {
-              posThatMatch.add(blockPos.asLong());
+      Iterator<Void> testPosIterator = stream.<Void>mapToObj(pos -> {
+            final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, mutable.set(pos), true);
+            if (compiledPredicate.test(cachedBlockPosition)) {
+              posThatMatch.add(pos);
             }
             return null;
           })
           .iterator();
       Iterable<Void> placingIterator = () -> posThatMatch.longStream()
-          .mapToObj(mutable::set)
-          .map(mapper)
+          .mapToObj(mapper)
           .iterator();
       mainIterator = Iterables.concat(() -> testPosIterator, placingIterator).iterator();
     }
@@ -163,9 +166,12 @@ public enum ConvertBlocksCommand implements CommandRegistrationCallback {
     });
     final Iterator<Void> iterator = Iterators.concat(mainIterator, finalClaimIterator);
 
-    if (!keywordArgs.getBoolean("immediately") && region.numberOfBlocksAffected() > 2048) {
-      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.convertblocks.task_name", region.asString()), IterateUtils.batchAndSkip(iterator, 1024, 15));
-      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(region.numberOfBlocksAffected())).formatted(Formatting.YELLOW), true);
+    if (!keywordArgs.getBoolean("immediately") && blocksAffected > 2048) {
+      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.convertblocks.task_name", region.asString()), iterator)
+          .setOwner(source)
+          .setExpectedSteps(blocksAffected)
+          .setChangedCounter(numbersAffected::longValue);
+      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(blocksAffected)).formatted(Formatting.YELLOW), true);
       return 1;
     } else {
       IterateUtils.exhaust(iterator);
@@ -17,10 +17,11 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
 import org.apache.commons.lang3.mutable.MutableInt;
 import pers.solid.ecmd.argument.*;
+import pers.solid.ecmd.block.BulkBlockWriter;
 import pers.solid.ecmd.curve.Curve;
 import pers.solid.ecmd.extensions.ThreadExecutorExtension;
 import pers.solid.ecmd.function.block.BlockFunction;
-import pers.solid.ecmd.region.SphereRegion;
+import pers.solid.ecmd.function.block.MemoizedBlockFunction;
 import pers.solid.ecmd.util.TextUtil;
 import pers.solid.ecmd.util.bridge.CommandBridge;
 import pers.solid.ecmd.util.iterator.IterateUtils;
@@ -62,23 +63,27 @@ public enum DrawCommand implements CommandRegistrationCallback {
     if (!bypassLimit && estimatedIterationAmount > FillReplaceCommand.REGION_SIZE_LIMIT) {
       throw FillReplaceCommand.REGION_TOO_LARGE.create(estimatedIterationAmount, FillReplaceCommand.REGION_SIZE_LIMIT);
     }
-    final BlockFunction block = BlockFunctionArgumentType.getBlockFunction(context, "block");
+    final BlockFunction block = MemoizedBlockFunction.of(BlockFunctionArgumentType.getBlockFunction(context, "block"));
     final ServerCommandSource source = context.getSource();
     final ServerWorld world = source.getWorld();
 
     final Iterator<?> mainIterator;
     final MutableInt numbersAffected = new MutableInt();
-    Stream<BlockPos> stream = interval == 0 ? curve.streamBlockPos() : curve.streamPoints(interval)
-        .map(BlockPos::ofFloored)
-        .distinct();
-
+    final Stream<BlockPos> stream;
     if (thickness > 0) {
-      stream = stream.flatMap(pos -> new SphereRegion(thickness, pos.toCenterPos()).stream()).distinct();
+      // 加粗后的曲线逐行遍历，每个方块只会遍历一次，不需要对每个点分别产生球再去重
+      final BlockPos.Mutable mutable = new BlockPos.Mutable();
+      stream = (interval == 0 ? curve.longStreamBlockPos(thickness) : Curve.rasterizeDots(curve.iteratePoints(interval), thickness)).mapToObj(mutable::set);
+    } else {
+      stream = interval == 0 ? curve.streamBlockPos() : curve.streamPoints(interval)
+          .map(BlockPos::ofFloored)
+          .distinct();
     }
 
+    final BulkBlockWriter writer = new BulkBlockWriter(world, flags, modFlags);
     mainIterator = stream
         .peek(blockPos -> {
-          if (block.setBlock(world, blockPos, flags, modFlags))
+          if (block.setBlock(writer, blockPos))
             numbersAffected.increment();
         })
         .map(blockPos -> null)
@@ -86,7 +91,10 @@ public enum DrawCommand implements CommandRegistrationCallback {
     final Iterator<?> iterator = Iterators.concat(mainIterator, IterateUtils.singletonPeekingIterator(() -> source.sendFeedback(TextUtil.enhancedTranslatable("enhanced_commands.commands.fill.complete", numbersAffected.getValue()), true)));
     if (!immediately && estimatedIterationAmount > 16384) {
       // The region is too large. Send a server task.
-      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.draw.task_name", curve.asString()), IterateUtils.batchAndSkip(iterator, 32768, 15));
+      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.draw.task_name", curve.asString()), iterator)
+          .setOwner(source)
+          .setExpectedSteps((long) estimatedIterationAmount)
+          .setChangedCounter(numbersAffected::longValue);
       CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", estimatedIterationAmount).formatted(Formatting.YELLOW), true);
       return 1;
     } else {
@@ -3,6 +3,7 @@ package pers.solid.ecmd.command;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.builder.LiteralArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
@@ -27,9 +28,13 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.*;
+import pers.solid.ecmd.block.BulkBlockWriter;
+import pers.solid.ecmd.block.ParallelPredicateTester;
 import pers.solid.ecmd.extensions.ThreadExecutorExtension;
 import pers.solid.ecmd.function.block.BlockFunction;
+import pers.solid.ecmd.function.block.MemoizedBlockFunction;
 import pers.solid.ecmd.predicate.block.BlockPredicate;
+import pers.solid.ecmd.predicate.block.CompiledBlockPredicate;
 import pers.solid.ecmd.region.Region;
 import pers.solid.ecmd.util.LoadUtil;
 import pers.solid.ecmd.util.TextUtil;
@@ -39,7 +44,7 @@ import pers.solid.ecmd.util.iterator.IterateUtils;
 
 import java.util.Iterator;
 import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.stream.LongStream;
 
 import static net.minecraft.server.command.CommandManager.argument;
 import static pers.solid.ecmd.argument.RegionArgumentType.region;
@@ -58,7 +63,9 @@ public enum FillReplaceCommand implements CommandRegistrationCallback {
   public void register(CommandDispatcher<ServerCommandSource> dispatcher, CommandRegistryAccess registryAccess, CommandManager.RegistrationEnvironment environment) {
     LiteralArgumentBuilder<ServerCommandSource> directBuilder = literalR2("fill");
     LiteralArgumentBuilder<ServerCommandSource> indirectBuilder = literalR2("/fill");
-    final KeywordArgsArgumentType keywordArgs = KeywordArgsArgumentType.builderFromShared(KeywordArgsCommon.FILLING, registryAccess).build();
+    final KeywordArgsArgumentType keywordArgs = KeywordArgsArgumentType.builderFromShared(KeywordArgsCommon.FILLING, registryAccess)
+        .addOptionalArg("parallel", BoolArgumentType.bool(), false)
+        .build();
     final LiteralCommandNode<ServerCommandSource> fillNode = ModCommands.registerWithRegionArgumentModification(dispatcher, directBuilder, indirectBuilder, argument("region", region(registryAccess)).then(argument("block", BlockFunctionArgumentType.blockFunction(registryAccess))
         .executes(context -> execute(context, null))
         .then(argument("keyword_args", keywordArgs)
@@ -100,18 +107,21 @@ public enum FillReplaceCommand implements CommandRegistrationCallback {
   public static final SimpleCommandExceptionType UNLOADED_POS = new SimpleCommandExceptionType(Text.translatable("enhanced_commands.commands.fill.rejected", "unloaded=" + UnloadedPosBehavior.FORCE.asString()));
 
   public static int setBlocksWithDefaultKeywordArgs(Region region, BlockFunction blockFunction, ServerCommandSource source, @Nullable Predicate<CachedBlockPosition> predicate) throws CommandSyntaxException {
-    return setBlocksInRegion(region, blockFunction, source, predicate, false, false, Block.NOTIFY_LISTENERS, 0, UnloadedPosBehavior.REJECT);
+    return setBlocksInRegion(region, blockFunction, source, predicate, false, false, false, Block.NOTIFY_LISTENERS, 0, UnloadedPosBehavior.REJECT);
   }
 
   public static int setBlocksFromKeywordArgs(Region region, BlockFunction blockFunction, ServerCommandSource source, @Nullable Predicate<CachedBlockPosition> predicate, KeywordArgs kwArgs) throws CommandSyntaxException {
-    return setBlocksInRegion(region, blockFunction, source, predicate, kwArgs.getBoolean("immediately"), kwArgs.getBoolean("bypass_limit"), getFlags(kwArgs), getModFlags(kwArgs), kwArgs.getArg("unloaded_pos"));
+    return setBlocksInRegion(region, blockFunction, source, predicate, kwArgs.getBoolean("immediately"), kwArgs.getBoolean("bypass_limit"), kwArgs.supportsArg("parallel") && kwArgs.getBoolean("parallel"), getFlags(kwArgs), getModFlags(kwArgs), kwArgs.getArg("unloaded_pos"));
   }
 
-  public static int setBlocksInRegion(Region region, BlockFunction blockFunction, ServerCommandSource source, @Nullable Predicate<CachedBlockPosition> predicate, boolean immediately, boolean bypassLimit, int flags, int modFlags, UnloadedPosBehavior unloadedPosBehavior) throws CommandSyntaxException {
-    if (!bypassLimit && region.numberOfBlocksAffected() > REGION_SIZE_LIMIT) {
-      throw REGION_TOO_LARGE.create(region.numberOfBlocksAffected(), REGION_SIZE_LIMIT);
+  public static int setBlocksInRegion(Region region, BlockFunction uncachedBlockFunction, ServerCommandSource source, @Nullable Predicate<CachedBlockPosition> uncompiledPredicate, boolean immediately, boolean bypassLimit, boolean parallel, int flags, int modFlags, UnloadedPosBehavior unloadedPosBehavior) throws CommandSyntaxException {
+    final long blocksAffected = region.numberOfBlocksAffected();
+    if (!bypassLimit && blocksAffected > REGION_SIZE_LIMIT) {
+      throw REGION_TOO_LARGE.create(blocksAffected, REGION_SIZE_LIMIT);
     }
     final ServerWorld world = source.getWorld();
+    final BlockFunction blockFunction = MemoizedBlockFunction.of(uncachedBlockFunction);
+    final Predicate<CachedBlockPosition> predicate = uncompiledPredicate instanceof BlockPredicate compilable ? CompiledBlockPredicate.of(compilable) : uncompiledPredicate;
     if (unloadedPosBehavior == UnloadedPosBehavior.REJECT) {
       final BlockBox box = region.minContainingBlockBox();
       if (box != null && !LoadUtil.isPosLoaded(world, box)) {
@@ -122,42 +132,56 @@ public enum FillReplaceCommand implements CommandRegistrationCallback {
     final Iterator<Void> mainIterator;
     final MutableInt numbersAffected = new MutableInt();
     final MutableBoolean hasUnloaded = new MutableBoolean();
-    Stream<BlockPos> stream = region.stream();
+    // 坐标以长整数的形式传递，只在需要时设置到同一个可变的坐标中
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    LongStream stream = region.longStreamByChunkSection();
     if (unloadedPosBehavior == UnloadedPosBehavior.BREAK) {
       stream = stream.takeWhile(pos -> {
-        final boolean chunkLoaded = world.isChunkLoaded(pos);
+        final boolean chunkLoaded = world.isChunkLoaded(mutable.set(pos));
         if (!chunkLoaded) hasUnloaded.setTrue();
         return chunkLoaded;
       });
     } else if (unloadedPosBehavior == UnloadedPosBehavior.SKIP) {
       stream = stream.filter(pos -> {
-        final boolean chunkLoaded = world.isChunkLoaded(pos);
+        final boolean chunkLoaded = world.isChunkLoaded(mutable.set(pos));
         if (!chunkLoaded) hasUnloaded.setTrue();
         return chunkLoaded;
       });
     }
 
+    final BulkBlockWriter writer = new BulkBlockWriter(world, flags, modFlags);
     if (predicate == null) {
-      mainIterator = stream.<Void>map(blockPos -> {
-            if (blockFunction.setBlock(world, blockPos, flags, modFlags)) {
+      mainIterator = stream.<Void>mapToObj(pos -> {
+            if (blockFunction.setBlock(writer, mutable.set(pos))) {
               numbersAffected.increment();
             }
             return null;
           })
           .iterator();
+    } else if (parallel && predicate instanceof BlockPredicate blockPredicate && blockPredicate.isThreadSafe()) {
+      // 在服务器线程中收集坐标并复制区块段，在其他线程中测试谓词，放置方块时仍然在服务器线程中
+      final ParallelPredicateTester tester = new ParallelPredicateTester(world, blockPredicate);
+      final Iterator<Void> testPosIteration = tester.submitting(stream);
+      Iterable<Void> placingIteration = () -> tester.matchingPositions().<Void>mapToObj(blockPos -> {
+            if (blockFunction.setBlock(writer, mutable.set(blockPos))) {
+              numbersAffected.increment();
+            }
+            return null;
+          })
+          .iterator();
+      mainIterator = Iterables.concat(() -> testPosIteration, placingIteration).iterator();
     } else {
       LongList posThatMatch = new LongArrayList();
-      final BlockPos.Mutable mutable = new BlockPos.Mutable();
-      Iterator<Void> testPosIteration = stream.<Void>map(blockPos -> {
-            final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, blockPos, true);
+      Iterator<Void> testPosIteration = stream.<Void>mapToObj(pos -> {
+            final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, mutable.set(pos), true);
             if (predicate.test(cachedBlockPosition)) {
-              posThatMatch.add(blockPos.asLong());
+              posThatMatch.add(pos);
             }
             return null;
           })
           .iterator();
       Iterable<Void> placingIteration = () -> posThatMatch.longStream().<Void>mapToObj(blockPos -> {
-            if (blockFunction.setBlock(world, mutable.set(blockPos), flags, modFlags)) {
+            if (blockFunction.setBlock(writer, mutable.set(blockPos))) {
               numbersAffected.increment();
             }
             return null;
@@ -172,10 +196,13 @@ public enum FillReplaceCommand implements CommandRegistrationCallback {
     } : "enhanced_commands.commands.fill.complete", numbersAffected.getValue()), true));
     final Iterator<Void> iterator = Iterators.concat(mainIterator, finalClaimIterator);
 
-    if (!immediately && region.numberOfBlocksAffected() > 16384) {
+    if (!immediately && blocksAffected > 16384) {
       // The region is too large. Send a server task.
-      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.fill.task_name", region.asString()), IterateUtils.batchAndSkip(iterator, 32768, 15));
-      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(region.numberOfBlocksAffected())).formatted(Formatting.YELLOW), true);
+      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.fill.task_name", region.asString()), iterator)
+          .setOwner(source)
+          .setExpectedSteps(blocksAffected)
+          .setChangedCounter(numbersAffected::longValue);
+      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(blocksAffected)).formatted(Formatting.YELLOW), true);
       return 1;
     } else {
       IterateUtils.exhaust(iterator);
@@ -1,6 +1,7 @@
 package pers.solid.ecmd.command;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.Collections2;
+import com.google.common.collect.Iterators;
 import com.mojang.brigadier.Command;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.RedirectModifier;
@@ -54,12 +55,18 @@ import net.minecraft.util.math.*;
 import net.minecraft.world.LightType;
 import net.minecraft.world.chunk.WorldChunk;
 import org.apache.commons.lang3.RandomUtils;
+import org.apache.commons.lang3.mutable.MutableInt;
 import pers.solid.ecmd.argument.BlockPredicateArgumentType;
 import pers.solid.ecmd.argument.DirectionArgumentType;
 import pers.solid.ecmd.argument.EnhancedPosArgumentType;
 import pers.solid.ecmd.argument.RegionArgumentType;
+import pers.solid.ecmd.extensions.ThreadExecutorExtension;
+import pers.solid.ecmd.mixin.CommandContextAccessor;
 import pers.solid.ecmd.region.Region;
+import pers.solid.ecmd.util.EnhancedRedirectModifier;
+import pers.solid.ecmd.util.TextUtil;
 import pers.solid.ecmd.util.bridge.CommandBridge;
+import pers.solid.ecmd.util.iterator.IterateUtils;
 import pers.solid.ecmd.util.lambda.ToFloatTriFunction;
 import pers.solid.ecmd.util.lambda.ToIntQuadFunction;
 import pers.solid.ecmd.util.lambda.ToIntTriFunction;
@@ -102,47 +109,23 @@ public final class SeparatedExecuteCommand {
     dispatcher.register(addConditionArguments(literalCommandNode, literalR2("if"), true, commandRegistryAccess));
     dispatcher.register(addConditionArguments(literalCommandNode, literalR2("unless"), false, commandRegistryAccess));
     dispatcher.register(literalR2("as")
-        .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> {
-          List<ServerCommandSource> list = Lists.newArrayList();
-
-          for (Entity entity : EntityArgumentType.getOptionalEntities(context, "targets")) {
-            list.add(context.getSource().withEntity(entity));
-          }
-
-          return list;
-        })));
+        .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> forEachTarget(context, context.getSource()::withEntity))));
     dispatcher.register(literalR2("at")
-        .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> {
-          List<ServerCommandSource> list = Lists.newArrayList();
-
-          for (Entity entity : EntityArgumentType.getOptionalEntities(context, "targets")) {
-            list.add(context.getSource().withWorld((ServerWorld) entity.world).withPosition(entity.getPos()).withRotation(entity.getRotationClient()));
-          }
-
-          return list;
-        })));
+        .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> forEachTarget(context, entity -> context.getSource().withWorld((ServerWorld) entity.world).withPosition(entity.getPos()).withRotation(entity.getRotationClient())))));
     dispatcher.register(literalR2("for")
         .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> {
           final ServerCommandSource source = context.getSource();
-          List<ServerCommandSource> list = new ArrayList<>();
-          for (Entity entity : EntityArgumentType.getOptionalEntities(context, "targets")) {
-            ServerCommandSource serverCommandSource = source.withEntity(entity).withWorld((ServerWorld) entity.world).withPosition(entity.getPos()).withRotation(entity.getRotationClient());
-            list.add(serverCommandSource);
-          }
-          return list;
+          return forEachTarget(context, entity -> source.withEntity(entity).withWorld((ServerWorld) entity.world).withPosition(entity.getPos()).withRotation(entity.getRotationClient()));
         })));
     dispatcher.register(literalR2("inregion")
+        .then(literal("scheduled")
+            .then(argument("region", RegionArgumentType.region(commandRegistryAccess))
+                .fork(literalCommandNode, context -> {
+                  scheduleInRegion(context, RegionArgumentType.getRegion(context, "region"));
+                  return List.of();
+                })))
         .then(argument("region", RegionArgumentType.region(commandRegistryAccess))
-            .fork(literalCommandNode, context -> {
-              final Region region = RegionArgumentType.getRegion(context, "region");
-              final ServerCommandSource source = context.getSource();
-              List<ServerCommandSource> list = new ArrayList<>();
-              for (BlockPos pos : region) {
-                ServerCommandSource serverCommandSource = source.withPosition(Vec3d.ofBottomCenter(pos));
-                list.add(serverCommandSource);
-              }
-              return list;
-            })));
+            .fork(literalCommandNode, context -> sourcesInRegion(RegionArgumentType.getRegion(context, "region"), context.getSource()))));
     dispatcher.register(literalR2("silenced").redirect(literalCommandNode, context -> context.getSource().withSilent()));
     dispatcher.register(literalR2("store")
         .then(addStoreArguments(literalCommandNode, literal("result"), true))
@@ -150,15 +133,7 @@ public final class SeparatedExecuteCommand {
     dispatcher.register(literalR2("positioned")
         .then(argument("pos", Vec3ArgumentType.vec3()).redirect(literalCommandNode, context -> context.getSource().withPosition(Vec3ArgumentType.getVec3(context, "pos")).withEntityAnchor(EntityAnchorArgumentType.EntityAnchor.FEET)))
         .then(literal("as")
-            .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> {
-              List<ServerCommandSource> list = Lists.newArrayList();
-
-              for (Entity entity : EntityArgumentType.getOptionalEntities(context, "targets")) {
-                list.add(context.getSource().withPosition(entity.getPos()));
-              }
-
-              return list;
-            })))
+            .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> forEachTarget(context, entity -> context.getSource().withPosition(entity.getPos())))))
         .then(literal("over")
             .then(argument("heightmap", HeightmapArgumentType.heightmap()).redirect(literalCommandNode, context -> {
               Vec3d vec3d = context.getSource().getPosition();
@@ -175,27 +150,13 @@ public final class SeparatedExecuteCommand {
     dispatcher.register(literalR2("rotated")
         .then(argument("rot", RotationArgumentType.rotation()).redirect(literalCommandNode, context -> context.getSource().withRotation(RotationArgumentType.getRotation(context, "rot").toAbsoluteRotation(context.getSource()))))
         .then(literal("as")
-            .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> {
-              List<ServerCommandSource> list = Lists.newArrayList();
-
-              for (Entity entity : EntityArgumentType.getOptionalEntities(context, "targets")) {
-                list.add(context.getSource().withRotation(entity.getRotationClient()));
-              }
-
-              return list;
-            }))));
+            .then(argument("targets", EntityArgumentType.entities()).fork(literalCommandNode, context -> forEachTarget(context, entity -> context.getSource().withRotation(entity.getRotationClient()))))));
     dispatcher.register(literalR2("facing")
         .then(literal("entity")
             .then(argument("targets", EntityArgumentType.entities())
                 .then(argument("anchor", EntityAnchorArgumentType.entityAnchor()).fork(literalCommandNode, context -> {
-                  List<ServerCommandSource> list = Lists.newArrayList();
                   EntityAnchorArgumentType.EntityAnchor entityAnchor = EntityAnchorArgumentType.getEntityAnchor(context, "anchor");
-
-                  for (Entity entity : EntityArgumentType.getOptionalEntities(context, "targets")) {
-                    list.add(context.getSource().withLookingAt(entity, entityAnchor));
-                  }
-
-                  return list;
+                  return forEachTarget(context, entity -> context.getSource().withLookingAt(entity, entityAnchor));
                 }))))
         .then(argument("pos", Vec3ArgumentType.vec3()).redirect(literalCommandNode, context -> context.getSource().withLookingAt(Vec3ArgumentType.getVec3(context, "pos")))));
     dispatcher.register(literalR2("align")
@@ -546,6 +507,96 @@ public final class SeparatedExecuteCommand {
     }
   }
 
+  /**
+   * 对参数 {@code targets} 中的每个实体产生一个命令源。返回的集合是实体列表的视图，命令源在遍历时才会创建，不会另外创建一个列表。
+   */
+  private static Collection<ServerCommandSource> forEachTarget(CommandContext<ServerCommandSource> context, Function<Entity, ServerCommandSource> function) throws CommandSyntaxException {
+    return Collections2.transform(EntityArgumentType.getOptionalEntities(context, "targets"), function::apply);
+  }
+
+  /**
+   * 以区域内的各个方块的底部中心为位置的命令源。命令源在遍历时才会创建，不会预先存储在列表中。但是，brigadier 仍然会为每个命令源创建一个上下文之后才开始执行，因此对于很大的区域，应当使用 {@code inregion scheduled} 分多个刻执行。
+   */
+  private static Collection<ServerCommandSource> sourcesInRegion(Region region, ServerCommandSource source) {
+    return new AbstractCollection<>() {
+      @Override
+      public Iterator<ServerCommandSource> iterator() {
+        return Iterators.transform(region.iterator(), pos -> source.withPosition(Vec3d.ofBottomCenter(pos)));
+      }
+
+      /**
+       * 只用于 brigadier 预先分配列表的容量，因此可以是估计值。
+       */
+      @Override
+      public int size() {
+        return (int) Math.min(Integer.MAX_VALUE, region.numberOfBlocksAffected());
+      }
+    };
+  }
+
+  /**
+   * 创建一个任务，在区域内的各个方块的底部中心依次执行命令的剩余部分。每个方块的命令源只在执行到这个方块时才会创建并立即执行，任务与其他任务一起受到 {@link pers.solid.ecmd.configs.TasksConfig} 中的每刻时间预算的限制，因此较大的区域会分多个刻执行，不会使服务器卡住。
+   */
+  private static void scheduleInRegion(CommandContext<ServerCommandSource> context, Region region) {
+    final ServerCommandSource source = context.getSource();
+    final CommandContext<ServerCommandSource> child = context.getChild();
+    final long expectedSteps = region.numberOfBlocksAffected();
+    final MutableInt successes = new MutableInt();
+    final Iterator<?> iterator = Iterators.concat(Iterators.transform(region.iterator(), pos -> {
+      successes.add(executeForked(child, source.withPosition(Vec3d.ofBottomCenter(pos))));
+      return null;
+    }), IterateUtils.singletonPeekingIterator(() -> CommandBridge.sendFeedback(source, () -> TextUtil.enhancedTranslatable("enhanced_commands.commands.inregion.complete", successes.intValue()), false)));
+    ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.inregion.task_name", region.asString()), iterator)
+        .setOwner(source)
+        .setExpectedSteps(expectedSteps);
+    CommandBridge.sendFeedback(source, () -> TextUtil.enhancedTranslatable("enhanced_commands.commands.inregion.scheduled", expectedSteps), false);
+  }
+
+  /**
+   * 对单个命令源，以深度优先的方式执行上下文中剩余的部分，其行为与 {@link CommandDispatcher#execute(com.mojang.brigadier.ParseResults)} 处理分叉后的上下文时一致：命令的错误不会抛出，而是以失败的结果报告给命令源。这样，命令源可以逐个产生并立即执行，不需要预先为所有的命令源创建上下文。
+   *
+   * @return 成功执行的命令的数量。
+   */
+  @SuppressWarnings("unchecked")
+  private static int executeForked(CommandContext<ServerCommandSource> context, ServerCommandSource source) {
+    final CommandContext<ServerCommandSource> current = context.copyFor(source);
+    final CommandContext<ServerCommandSource> child = current.getChild();
+    if (child == null) {
+      final Command<ServerCommandSource> command = current.getCommand();
+      if (command == null) {
+        return 0;
+      }
+      try {
+        source.onCommandComplete(current, true, command.run(current));
+        return 1;
+      } catch (CommandSyntaxException e) {
+        source.onCommandComplete(current, false, 0);
+        return 0;
+      }
+    }
+    if (!child.hasNodes()) {
+      return 0;
+    }
+    final RedirectModifier<ServerCommandSource> modifier = current.getRedirectModifier();
+    if (modifier == null) {
+      return executeForked(child, source);
+    }
+    int successes = 0;
+    try {
+      for (ServerCommandSource result : modifier.apply(current)) {
+        final CommandContext<ServerCommandSource> next = child.copyFor(result);
+        if (modifier instanceof EnhancedRedirectModifier.Multiple<ServerCommandSource> enhancedRedirectModifier) {
+          // 与 CommandDispatcherMixin 相同
+          enhancedRedirectModifier.modifyArguments(((CommandContextAccessor<ServerCommandSource>) next).getArguments(), ((CommandContextAccessor<ServerCommandSource>) current).getArguments(), result);
+        }
+        successes += executeForked(next, result);
+      }
+    } catch (CommandSyntaxException e) {
+      source.onCommandComplete(current, false, 0);
+    }
+    return successes;
+  }
+
   private static RedirectModifier<ServerCommandSource> createEntityModifier(Function<Entity, Optional<Entity>> function) {
     return context -> {
       ServerCommandSource serverCommandSource = context.getSource();
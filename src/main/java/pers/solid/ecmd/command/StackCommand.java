@@ -6,13 +6,11 @@ import com.mojang.brigadier.arguments.BoolArgumentType;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
-import it.unimi.dsi.fastutil.longs.Long2ReferenceLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ReferenceMap;
+import it.unimi.dsi.fastutil.longs.Long2ReferenceOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import it.unimi.dsi.fastutil.objects.ObjectList;
 import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
-import net.minecraft.block.BlockState;
-import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.command.CommandException;
 import net.minecraft.command.CommandRegistryAccess;
@@ -33,17 +31,19 @@ import org.apache.commons.lang3.mutable.MutableInt;
 import org.apache.commons.lang3.tuple.ImmutableTriple;
 import org.apache.commons.lang3.tuple.Triple;
 import pers.solid.ecmd.argument.*;
+import pers.solid.ecmd.block.BulkBlockWriter;
+import pers.solid.ecmd.block.SectionedBlockStateMap;
 import pers.solid.ecmd.block.UnloadedPosException;
 import pers.solid.ecmd.extensions.ThreadExecutorExtension;
 import pers.solid.ecmd.predicate.block.BlockPredicate;
 import pers.solid.ecmd.predicate.block.BlockPredicateArgument;
+import pers.solid.ecmd.predicate.block.CompiledBlockPredicate;
 import pers.solid.ecmd.region.Region;
 import pers.solid.ecmd.util.LoadUtil;
 import pers.solid.ecmd.util.Styles;
 import pers.solid.ecmd.util.UnloadedPosBehavior;
 import pers.solid.ecmd.util.bridge.CommandBridge;
 import pers.solid.ecmd.util.iterator.IterateUtils;
-import pers.solid.ecmd.util.mixin.MixinShared;
 import pers.solid.ecmd.util.mixin.ServerPlayerEntityExtension;
 
 import java.util.ArrayList;
@@ -51,6 +51,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 import static com.mojang.brigadier.arguments.IntegerArgumentType.getInteger;
@@ -158,8 +159,8 @@ public enum StackCommand implements CommandRegistrationCallback {
       }
     }
 
-    final Long2ReferenceMap<BlockState> sourceStates = new Long2ReferenceLinkedOpenHashMap<>();
-    final Long2ReferenceMap<NbtCompound> sourceBlockEntities = new Long2ReferenceLinkedOpenHashMap<>();
+    final SectionedBlockStateMap sourceStates = new SectionedBlockStateMap();
+    final Long2ReferenceMap<NbtCompound> sourceBlockEntities = new Long2ReferenceOpenHashMap<>();
     final ObjectList<Triple<Vec3d, EntityType<?>, NbtCompound>> sourceEntities = new ObjectArrayList<>();
     final MutableBoolean hasUnloadedPos = new MutableBoolean();
 
@@ -168,50 +169,53 @@ public enum StackCommand implements CommandRegistrationCallback {
     final BlockPredicate affectOnly, transformOnly;
     {
       final BlockPredicateArgument affectOnlyArgument = keywordArgs.getArg("affect_only");
-      affectOnly = affectOnlyArgument == null ? null : affectOnlyArgument.apply(source);
+      affectOnly = affectOnlyArgument == null ? null : CompiledBlockPredicate.of(affectOnlyArgument.apply(source));
       final BlockPredicateArgument transformOnlyArgument = keywordArgs.getArg("transform_only");
-      transformOnly = transformOnlyArgument == null ? null : transformOnlyArgument.apply(source);
+      transformOnly = transformOnlyArgument == null ? null : CompiledBlockPredicate.of(transformOnlyArgument.apply(source));
     }
 
     // 收集需要影响的方块和方块实体
-    Stream<BlockPos> stream = region.stream();
+    final BlockPos.Mutable sourcePos = new BlockPos.Mutable();
+    LongStream stream = region.longStreamByChunkSection();
     if (unloadedPosBehavior == UnloadedPosBehavior.REJECT) {
-      stream = stream.peek(blockPos -> {
-        if (!world.isChunkLoaded(blockPos)) {
+      stream = stream.peek(pos -> {
+        if (!world.isChunkLoaded(sourcePos.set(pos))) {
           hasUnloadedPos.setTrue();
-          throw new UnloadedPosException(blockPos.toImmutable());
+          throw new UnloadedPosException(BlockPos.fromLong(pos));
         }
       });
     }
     if (unloadedPosBehavior == UnloadedPosBehavior.SKIP) {
-      stream = stream.filter(blockPos -> {
-        final boolean chunkLoaded = world.isChunkLoaded(blockPos);
+      stream = stream.filter(pos -> {
+        final boolean chunkLoaded = world.isChunkLoaded(sourcePos.set(pos));
         if (!chunkLoaded) hasUnloadedPos.setTrue();
         return chunkLoaded;
       });
     }
     final Stream<Void> collectBlocks = stream
-        .map(blockPos -> {
-          final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, blockPos, unloadedPosBehavior == UnloadedPosBehavior.FORCE);
+        .mapToObj(pos -> {
+          final CachedBlockPosition cachedBlockPosition = new CachedBlockPosition(world, sourcePos.set(pos), unloadedPosBehavior == UnloadedPosBehavior.FORCE);
           if (transformOnly == null || transformOnly.test(cachedBlockPosition)) {
-            sourceStates.put(blockPos.asLong(), cachedBlockPosition.getBlockState());
+            sourceStates.put(pos, cachedBlockPosition.getBlockState());
             if (cachedBlockPosition.getBlockEntity() != null) {
-              sourceBlockEntities.put(blockPos.asLong(), cachedBlockPosition.getBlockEntity().createNbt());
+              sourceBlockEntities.put(pos, cachedBlockPosition.getBlockEntity().createNbt());
             }
           }
           return null;
         });
-    iterators.add(IterateUtils.batchAndSkip(collectBlocks.iterator(), 16384, 3));
+    iterators.add(collectBlocks.iterator());
 
     // 收集需要影响的实体
     final EntitySelector affectEntities = keywordArgs.getArg("affect_entities");
+    int numberOfEntities = 0;
     if (affectEntities != null) {
       final List<? extends Entity> entities = affectEntities.getEntities(source).stream().filter(entity -> region.contains(entity.getPos())).toList();
+      numberOfEntities = entities.size();
       final Stream<Void> collectEntities = entities.stream().map(entity -> {
         sourceEntities.add(new ImmutableTriple<>(entity.getPos(), entity.getType(), entity.writeNbt(new NbtCompound())));
         return null;
       });
-      iterators.add(IterateUtils.batchAndSkip(collectEntities.iterator(), 16384, 3));
+      iterators.add(collectEntities.iterator());
     }
 
     // 此操作过程影响的方块数量。注意：当 offset 为负数时，一个位置的方块可能被重复多次设置，这种情况下会被记录为多次。。
@@ -219,14 +223,15 @@ public enum StackCommand implements CommandRegistrationCallback {
     // 此操作过程复制的实体数量。
     MutableInt entitiesAffected = new MutableInt();
 
+    final BulkBlockWriter writer = new BulkBlockWriter(world, FillReplaceCommand.getFlags(keywordArgs), FillReplaceCommand.getModFlags(keywordArgs));
     final BlockPos.Mutable stackedRelativePos = new BlockPos.Mutable();
     final BlockPos.Mutable posToPlace = new BlockPos.Mutable();
     final Stream<Void> setBlocks = IntStream.rangeClosed(1, stackAmount).mapToObj(i -> {
       stackedRelativePos.set(relativeVec.multiply(i));
-      Stream<Long2ReferenceMap.Entry<BlockState>> targetPosStream = sourceStates.long2ReferenceEntrySet().stream()
-          .peek(entry -> posToPlace.set(entry.getLongKey()).move(stackedRelativePos));
+      LongStream targetPosStream = sourceStates.keyStream()
+          .peek(longValue -> posToPlace.set(longValue).move(stackedRelativePos));
       if (unloadedPosBehavior == UnloadedPosBehavior.BREAK) {
-        targetPosStream = targetPosStream.peek(entry -> {
+        targetPosStream = targetPosStream.peek(longValue -> {
           if (!world.isChunkLoaded(posToPlace)) {
             hasUnloadedPos.setTrue();
             throw new UnloadedPosException(posToPlace.toImmutable());
@@ -234,26 +239,18 @@ public enum StackCommand implements CommandRegistrationCallback {
         });
       }
       if (unloadedPosBehavior == UnloadedPosBehavior.SKIP) {
-        targetPosStream = targetPosStream.filter(entry -> {
+        targetPosStream = targetPosStream.filter(longValue -> {
           final boolean chunkLoaded = world.isChunkLoaded(posToPlace);
           if (!chunkLoaded) hasUnloadedPos.setTrue();
           return chunkLoaded;
         });
       }
       final Stream<Void> affectBlocksStream = targetPosStream
-          .map(entry -> {
+          .mapToObj(longValue -> {
             if (affectOnly == null || affectOnly.test(new CachedBlockPosition(world, posToPlace, false))) {
-              boolean modofied = MixinShared.setBlockStateWithModFlags(world, posToPlace, entry.getValue(), FillReplaceCommand.getFlags(keywordArgs), FillReplaceCommand.getModFlags(keywordArgs));
-
-              final BlockEntity blockEntity = world.getBlockEntity(posToPlace);
-              if (blockEntity != null) {
-                final NbtCompound nbtCompound = sourceBlockEntities.get(entry.getLongKey());
-                if (nbtCompound != null) {
-                  blockEntity.readNbt(nbtCompound);
-                  modofied = true;
-                }
+              if (writer.setBlockState(posToPlace, sourceStates.get(longValue), sourceBlockEntities.get(longValue))) {
+                blocksAffected.increment();
               }
-              if (modofied) blocksAffected.increment();
             }
             return null;
           });
@@ -275,7 +272,7 @@ public enum StackCommand implements CommandRegistrationCallback {
       });
       return Stream.concat(affectBlocksStream, affectEntitiesStream);
     }).flatMap(Function.identity());
-    iterators.add(IterateUtils.batchAndSkip(setBlocks.iterator(), 32767, 15));
+    iterators.add(setBlocks.iterator());
 
     Iterator<?> iterator = Iterators.concat(UnloadedPosException.catching(Iterators.concat(iterators.iterator())), IterateUtils.singletonPeekingIterator(() -> {
       if (hasUnloadedPos.booleanValue()) {
@@ -296,10 +293,15 @@ public enum StackCommand implements CommandRegistrationCallback {
     }));
 
     final boolean immediately = keywordArgs.getBoolean("immediately");
-    if (!immediately && region.numberOfBlocksAffected() * stackAmount > 16384) {
+    final long blocksInRegion = region.numberOfBlocksAffected();
+    if (!immediately && blocksInRegion * stackAmount > 16384) {
       // The region is too large. Send a server task.
-      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.stack.task_name", region.asString(), Integer.toString(stackAmount)), UnloadedPosException.catching(iterator));
-      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(region.numberOfBlocksAffected())).formatted(Formatting.YELLOW), true);
+      ((ThreadExecutorExtension) source.getServer()).ec_addIteratorTask(Text.translatable("enhanced_commands.commands.stack.task_name", region.asString(), Integer.toString(stackAmount)), UnloadedPosException.catching(iterator))
+          .setOwner(source)
+          // 先收集一次方块和实体，再逐次放置，每个步骤都会计入
+          .setExpectedSteps((blocksInRegion + numberOfEntities) * (stackAmount + 1L))
+          .setChangedCounter(blocksAffected::longValue);
+      CommandBridge.sendFeedback(source, () -> Text.translatable("enhanced_commands.commands.fill.large_region", Long.toString(blocksInRegion)).formatted(Formatting.YELLOW), true);
       return 1;
     } else {
       IterateUtils.exhaust(iterator);
@@ -4,6 +4,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Iterators;
 import com.mojang.brigadier.CommandDispatcher;
 import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.builder.RequiredArgumentBuilder;
 import com.mojang.brigadier.context.CommandContext;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.DynamicCommandExceptionType;
@@ -19,6 +20,8 @@ import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.*;
 import net.minecraft.util.Formatting;
 import pers.solid.ecmd.extensions.IteratorTask;
+import pers.solid.ecmd.extensions.TaskPriority;
+import pers.solid.ecmd.extensions.TaskTickStatistics;
 import pers.solid.ecmd.extensions.ThreadExecutorExtension;
 import pers.solid.ecmd.util.TextUtil;
 import pers.solid.ecmd.util.bridge.CommandBridge;
@@ -36,6 +39,11 @@ public enum TasksCommand implements CommandRegistrationCallback {
       final Map<UUID, WeakReference<IteratorTask<?>>> uuidToTasks = ((ThreadExecutorExtension) context.getSource().getServer()).ec_getUUIDToIteratorTasks();
       return CommandSource.suggestMatching(uuidToTasks.keySet().stream().map(UUID::toString), builder);
     };
+    final RequiredArgumentBuilder<ServerCommandSource, UUID> priorityNode = CommandManager.argument("uuid", UuidArgumentType.uuid()).suggests(taskUuidSuggestion);
+    for (TaskPriority priority : TaskPriority.VALUES) {
+      priorityNode.then(CommandManager.literal(priority.asString())
+          .executes(context -> executeSetTaskPriority(context.getSource().getServer(), context, UuidArgumentType.getUuid(context, "uuid"), priority)));
+    }
     dispatcher.register(ModCommands.literalR2("tasks")
         .executes(context -> executeListTasks(context.getSource().getServer(), context, 10))
         .then(CommandManager.literal("count")
@@ -56,6 +64,12 @@ public enum TasksCommand implements CommandRegistrationCallback {
                 .executes(context -> executeExhaustTask(context.getSource().getServer(), context, UuidArgumentType.getUuid(context, "uuid"), 0))
                 .then(CommandManager.argument("limit", IntegerArgumentType.integer(1))
                     .executes(context -> executeExhaustTask(context.getSource().getServer(), context, UuidArgumentType.getUuid(context, "uuid"), IntegerArgumentType.getInteger(context, "limit"))))))
+        .then(CommandManager.literal("priority")
+            .then(priorityNode))
+        .then(CommandManager.literal("stats")
+            .executes(context -> executeTickStats(context.getSource().getServer(), context))
+            .then(CommandManager.argument("uuid", UuidArgumentType.uuid()).suggests(taskUuidSuggestion)
+                .executes(context -> executeTaskStats(context.getSource().getServer(), context, UuidArgumentType.getUuid(context, "uuid")))))
         .then(CommandManager.literal("list")
             .executes(context -> executeListTasks(context.getSource().getServer(), context, 10))
             .then(CommandManager.argument("limit", IntegerArgumentType.integer(1, 30))
@@ -149,6 +163,24 @@ public enum TasksCommand implements CommandRegistrationCallback {
     throw TASK_UUID_DOES_NOT_EXIST.create(uuid);
   }
 
+  private static int executeSetTaskPriority(MinecraftServer server, CommandContext<ServerCommandSource> context, UUID uuid, TaskPriority priority) throws CommandSyntaxException {
+    final Map<UUID, WeakReference<IteratorTask<?>>> uuidToTasks = ((ThreadExecutorExtension) server).ec_getUUIDToIteratorTasks();
+    if (uuidToTasks.containsKey(uuid)) {
+      final IteratorTask<?> iteratorTask = uuidToTasks.get(uuid).get();
+      if (iteratorTask != null) {
+        if (iteratorTask.priority == priority) {
+          throw new CommandSyntaxException(null, Text.translatable("enhanced_commands.commands.tasks.priority.unchanged", iteratorTask.name, priority.getDisplayName()));
+        }
+        iteratorTask.priority = priority;
+        CommandBridge.sendFeedback(context, () -> Text.translatable("enhanced_commands.commands.tasks.priority.success", iteratorTask.name, priority.getDisplayName()), true);
+        return priority.weight;
+      } else {
+        uuidToTasks.remove(uuid);
+      }
+    }
+    throw TASK_UUID_DOES_NOT_EXIST.create(uuid);
+  }
+
   private static int executeExhaustTask(MinecraftServer server, CommandContext<ServerCommandSource> context, UUID uuid, int limit) throws CommandSyntaxException {
     final Map<UUID, WeakReference<IteratorTask<?>>> uuidToTasks = ((ThreadExecutorExtension) server).ec_getUUIDToIteratorTasks();
     if (uuidToTasks.containsKey(uuid)) {
@@ -174,6 +206,64 @@ public enum TasksCommand implements CommandRegistrationCallback {
     throw TASK_UUID_DOES_NOT_EXIST.create(uuid);
   }
 
+  private static String formatMillis(long nanos) {
+    return String.format("%.2f", nanos / 1_000_000d);
+  }
+
+  private static int executeTickStats(MinecraftServer server, CommandContext<ServerCommandSource> context) {
+    final TaskTickStatistics statistics = ((ThreadExecutorExtension) server).ec_getTaskTickStatistics();
+    final int size = statistics.size();
+    if (size == 0) {
+      CommandBridge.sendFeedback(context, () -> Text.translatable("enhanced_commands.commands.tasks.stats.none"), false);
+      return 0;
+    }
+    CommandBridge.sendFeedback(context, () -> {
+      final MutableText message = TextUtil.enhancedTranslatable("enhanced_commands.commands.tasks.stats.summary", Integer.toString(size), formatMillis(statistics.getAverageNanos()), formatMillis(statistics.getPercentileNanos(0.5)), formatMillis(statistics.getPercentileNanos(0.95)), formatMillis(statistics.getMaxNanos()));
+      final int[] histogram = statistics.getHistogram();
+      final int[] bounds = TaskTickStatistics.BUCKET_BOUNDS_MILLIS;
+      for (int i = 0; i < histogram.length; i++) {
+        final Text range = i == 0 ? Text.literal("< " + bounds[0] + " ms") : i == bounds.length ? Text.literal("≥ " + bounds[i - 1] + " ms") : Text.literal(bounds[i - 1] + "~" + bounds[i] + " ms");
+        message.append(ScreenTexts.LINE_BREAK).append(Text.literal(" - ").formatted(Formatting.GRAY)).append(Text.translatable("enhanced_commands.commands.tasks.stats.bucket", range, Integer.toString(histogram[i])));
+      }
+      return message;
+    }, false);
+    return (int) (statistics.getAverageNanos() / 1000);
+  }
+
+  private static int executeTaskStats(MinecraftServer server, CommandContext<ServerCommandSource> context, UUID uuid) throws CommandSyntaxException {
+    final Map<UUID, WeakReference<IteratorTask<?>>> uuidToTasks = ((ThreadExecutorExtension) server).ec_getUUIDToIteratorTasks();
+    final WeakReference<IteratorTask<?>> reference = uuidToTasks.get(uuid);
+    final IteratorTask<?> iteratorTask = reference == null ? null : reference.get();
+    if (iteratorTask == null) {
+      if (reference != null) uuidToTasks.remove(uuid);
+      throw TASK_UUID_DOES_NOT_EXIST.create(uuid);
+    }
+    final TaskTickStatistics statistics = ((ThreadExecutorExtension) server).ec_getTaskTickStatistics();
+    final Text unknown = Text.translatable("enhanced_commands.commands.tasks.stats.unknown").formatted(Formatting.GRAY);
+    final long expectedSteps = iteratorTask.getExpectedSteps();
+    final long blocksChanged = iteratorTask.getBlocksChanged();
+    final long remainingTicks = iteratorTask.getEstimatedRemainingTicks();
+    CommandBridge.sendFeedback(context, () -> {
+      final Text ownerName = iteratorTask.getOwnerName();
+      final List<Text> lines = List.of(
+          Text.translatable("enhanced_commands.commands.tasks.stats.owner", ownerName == null ? unknown : ownerName, iteratorTask.priority.getDisplayName()),
+          Text.translatable("enhanced_commands.commands.tasks.stats.visited", Long.toString(iteratorTask.getStepsDone()), expectedSteps < 0 ? unknown : Text.literal(Long.toString(expectedSteps))),
+          Text.translatable("enhanced_commands.commands.tasks.stats.changed", blocksChanged < 0 ? unknown : Text.literal(Long.toString(blocksChanged))),
+          Text.translatable("enhanced_commands.commands.tasks.stats.ticks", Long.toString(iteratorTask.getTicksAlive(statistics)), Integer.toString(iteratorTask.getTicksAdvanced())),
+          Text.translatable("enhanced_commands.commands.tasks.stats.time", formatMillis(iteratorTask.getNanosLastTick()), formatMillis(iteratorTask.getAverageNanosPerTick()), String.format("%.2f", iteratorTask.getNanosPerStep() / 1000d)),
+          Text.translatable("enhanced_commands.commands.tasks.stats.eta", remainingTicks < 0 ? unknown : Text.literal(Long.toString(remainingTicks)), remainingTicks < 0 ? unknown : Text.literal(String.format("%.1f", remainingTicks / 20d))));
+      final MutableText message = Text.translatable("enhanced_commands.commands.tasks.stats.task", iteratorTask.name);
+      if (iteratorTask.suspended) {
+        message.append(ScreenTexts.SPACE).append(Text.translatable("enhanced_commands.commands.tasks.buttons", Text.translatable("enhanced_commands.commands.tasks.buttons.suspended")).formatted(Formatting.LIGHT_PURPLE));
+      }
+      for (Text line : lines) {
+        message.append(ScreenTexts.LINE_BREAK).append(Text.literal(" - ").formatted(Formatting.GRAY)).append(line);
+      }
+      return message;
+    }, false);
+    return (int) Math.min(Integer.MAX_VALUE, iteratorTask.getStepsDone());
+  }
+
   private static int executeListTasks(MinecraftServer server, CommandContext<ServerCommandSource> context, int limit) {
     final Queue<IteratorTask<?>> iteratorTasks = ((ThreadExecutorExtension) server).ec_getIteratorTasks();
     final int size = iteratorTasks.size();
@@ -83,4 +83,9 @@ public class EntitySelectorParsingConfig {
    * 在实体选择器中输入战利品表谓词时，允许直接输入 json 指定谓词，而不是使用其 id。
    */
   public boolean allowLiteralPredicateJson = true;
+
+  /**
+   * 在使用实体选择器选择实体时，根据实际判断时各选项排除实体的比例，调整开销较大的选项的判断顺序，而不是只按照各选项的开销的估计值进行判断。
+   */
+  public boolean adaptivePredicateOrder = false;
 }
@@ -0,0 +1,36 @@
+package pers.solid.ecmd.configs;
+
+public class TasksConfig {
+  public static final TasksConfig DEFAULT = new TasksConfig();
+  public static TasksConfig CURRENT = DEFAULT;
+
+  /**
+   * 每一刻中，所有计划任务总共可以占用的时间，单位为毫秒。
+   */
+  public double tickBudgetMillis = 15;
+
+  /**
+   * 计划任务在首次运行时，一批所运行的进展数量。此后会根据实际耗费的时间进行调整。
+   */
+  public int initialBatchSize = 256;
+
+  /**
+   * 计划任务一批所运行的进展数量的下限。
+   */
+  public int minBatchSize = 1;
+
+  /**
+   * 计划任务一批所运行的进展数量的上限。
+   */
+  public int maxBatchSize = 1 << 20;
+
+  /**
+   * 同一个来源（例如同一名玩家）在每一刻中最多可以同时运行的计划任务的数量，多出的任务会按照优先级和添加的顺序等待。优先级为 {@code urgent} 的任务不受此限制。小于 1 时视为 1。
+   */
+  public int maxConcurrentTasksPerOwner = 2;
+
+  /**
+   * 同一个来源的计划任务在每一刻中总共可以占用的时间，单位为毫秒。优先级为 {@code urgent} 的任务不受此限制。
+   */
+  public double ownerBudgetMillis = 10;
+}
@@ -1,6 +1,7 @@
 package pers.solid.ecmd.curve;
 
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
 import com.mojang.brigadier.StringReader;
 import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
@@ -58,7 +59,7 @@ public record CircleCurve(Vec3d radius, Vec3d center, Vec3d axis, @NotNull Range
   @Override
   public @NotNull Iterator<Vec3d> iteratePoints(Number interval) {
     return new AbstractIterator<>() {
-      final double c = 2 * Math.PI * radius.length();
+      final double r = radius.length();
       private final Vector3d radiusVec = new Vector3d(radius.x, radius.y, radius.z);
       private final AxisAngle4d axisAngle4d = new AxisAngle4d(range.getMinimum(), axis.x, axis.y, axis.z);
 
@@ -69,12 +70,36 @@ public record CircleCurve(Vec3d radius, Vec3d center, Vec3d axis, @NotNull Range
         }
         radiusVec.set(radius.x, radius.y, radius.z);
         axisAngle4d.transform(radiusVec);
-        axisAngle4d.angle += interval.doubleValue() / c;
+        axisAngle4d.angle += interval.doubleValue() / r;
         return new Vec3d(radiusVec.x + center.x, radiusVec.y + center.y, radiusVec.z + center.z);
       }
     };
   }
 
+  /**
+   * 转换为方块坐标时，相邻的两点之间的弦与圆弧之间的最大距离。
+   */
+  public static final double RASTERIZATION_TOLERANCE = 0.05;
+
+  /**
+   * 指定角度的点。
+   */
+  private Vec3d pointAt(double angle) {
+    final Vector3d radiusVec = new Vector3d(radius.x, radius.y, radius.z);
+    new AxisAngle4d(angle, axis.x, axis.y, axis.z).transform(radiusVec);
+    return new Vec3d(radiusVec.x + center.x, radiusVec.y + center.y, radiusVec.z + center.z);
+  }
+
+  /**
+   * 点之间的间距根据半径调整，使得相邻两点之间的弦与圆弧之间的距离不超过 {@link #RASTERIZATION_TOLERANCE}，因此半径越大，间距就越大。最后一个点总是圆弧的终点。{@link #streamBlockPos()} 会精确地遍历相邻两点之间的弦所经过的方块，加粗时各段弦的胶囊体组合起来就近似于圆环的一部分。
+   */
+  @Override
+  public @NotNull Iterator<Vec3d> rasterizationPoints() {
+    final double r = radius.length();
+    final double interval = r <= RASTERIZATION_TOLERANCE ? r : 2 * r * Math.acos(1 - RASTERIZATION_TOLERANCE / r);
+    return Iterators.concat(iteratePoints(Math.max(interval, 0.05)), Iterators.singletonIterator(pointAt(range.getMaximum())));
+  }
+
   @Override
   public double length() {
     return radius.length() * (range.getMaximum() - range.getMinimum());
@@ -130,8 +155,10 @@ public record CircleCurve(Vec3d radius, Vec3d center, Vec3d axis, @NotNull Range
   @Override
   public @Nullable Box minContainingBox() {
     double minX, minY, minZ, maxX, maxY, maxZ;
-    minX = minY = minZ = maxX = maxY = maxZ = 0;
-    final Iterator<Vec3d> vec3dIterator = iteratePoints(1);
+    minX = minY = minZ = Double.POSITIVE_INFINITY;
+    maxX = maxY = maxZ = Double.NEGATIVE_INFINITY;
+    // 使用与转换为方块坐标时相同的点，各条弦都在这些点所确定的长方体内，因此其经过的方块也都在其中
+    final Iterator<Vec3d> vec3dIterator = rasterizationPoints();
     if (!vec3dIterator.hasNext()) {
       // 含有零个点时，返回空。
       return null;
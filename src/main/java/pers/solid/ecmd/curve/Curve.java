@@ -13,6 +13,7 @@ import pers.solid.ecmd.util.GeoUtil;
 
 import java.util.Iterator;
 import java.util.function.Function;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -55,9 +56,52 @@ public interface Curve extends Region {
    * 沿着这个曲线产生一条像素化的连续的线。这个 BlockPos 有可能是 {@link BlockPos.Mutable}。
    *
    * @implNote 此方法会被 {@link #iterator()} 使用。如果覆盖了 {@link #iterator()}，那么应该一并覆盖此方法。
+   * @implSpec 默认情况下，通过 {@link #rasterize(Iterator)} 返回依次连接 {@link #rasterizationPoints()} 中的各点所经过的方块坐标。
    */
   default @NotNull Stream<BlockPos> streamBlockPos() {
-    return streamPoints(0.1d).map(BlockPos::ofFloored).distinct();
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return rasterize(rasterizationPoints()).mapToObj(mutable::set);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回与这条曲线的距离小于 {@code thickness} 的所有方块坐标（以方块中心计），即球沿着曲线移动所经过的区域，每个坐标只返回一次。
+   *
+   * @implSpec 默认情况下，通过 {@link #rasterize(Iterator, double)} 加粗依次连接 {@link #rasterizationPoints()} 中的各点而成的折线。
+   */
+  default @NotNull LongStream longStreamBlockPos(double thickness) {
+    return rasterize(rasterizationPoints(), thickness);
+  }
+
+  /**
+   * 转换为方块坐标时所使用的点，依次连接这些点而成的折线就是曲线的近似。
+   *
+   * @implSpec 默认情况下，每隔 0.5 格取一个点。
+   */
+  default @NotNull Iterator<Vec3d> rasterizationPoints() {
+    return iteratePoints(0.5d);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回依次连接各点而成的折线所经过的所有方块坐标，按照顺序逐个方块地遍历每条线段，不需要密集地取点再去重。
+   */
+  static LongStream rasterize(Iterator<Vec3d> points) {
+    return CurveRasterizer.rasterize(points);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回依次连接各点而成的折线加粗后的所有方块坐标，每条线段加粗后为胶囊体，逐行计算范围，只会访问在胶囊体内的方块。相邻的胶囊体重叠的部分不会重复返回，且不需要使用集合进行去重。
+   *
+   * @param thickness 加粗的半径。
+   */
+  static LongStream rasterize(Iterator<Vec3d> points, double thickness) {
+    return SweptCurveRasterizer.rasterize(points, thickness, true);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回以各点所在的方块的中心为球心、半径为 {@code thickness} 的球内的所有方块坐标，相邻的球重叠的部分不会重复返回。
+   */
+  static LongStream rasterizeDots(Iterator<Vec3d> points, double thickness) {
+    return SweptCurveRasterizer.rasterize(points, thickness, false);
   }
 
   /**
@@ -0,0 +1,148 @@
+package pers.solid.ecmd.curve;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 将依次连接各点而成的折线转换为方块坐标。对于每条线段，使用三维 DDA（Amanatides–Woo）算法，按照顺序精确地遍历线段所经过的每个方块，相邻的方块共面，不会遗漏只经过方块的角落的方块。
+ * <p>
+ * 不使用集合进行去重，而是记录最先和最近返回的 {@link #WINDOW} 个坐标并跳过与之重复的坐标。对于不会在远离之后再回到同一方块的曲线（例如直线、圆和圆弧），这可以保证每个坐标只返回一次。
+ */
+final class CurveRasterizer implements PrimitiveIterator.OfLong {
+  private static final int WINDOW = 16;
+  private final Iterator<Vec3d> points;
+  private Vec3d segmentStart;
+  private int x, y, z;
+  private int stepX, stepY, stepZ;
+  /**
+   * 当前线段在各坐标轴上还需要经过的方块数。
+   */
+  private int remainingX, remainingY, remainingZ;
+  /**
+   * 线段到达各坐标轴上的下一个方块边界时的参数值，以及在各坐标轴上经过一个方块所需的参数值，参数值为 0 到 1。
+   */
+  private double tMaxX, tMaxY, tMaxZ, tDeltaX, tDeltaY, tDeltaZ;
+  private final long[] first = new long[WINDOW];
+  private int firstCount;
+  private final long[] recent = new long[WINDOW];
+  private int recentCount, recentIndex;
+  private boolean hasPending;
+  private long pending;
+
+  private CurveRasterizer(Iterator<Vec3d> points) {
+    this.points = points;
+  }
+
+  /**
+   * 返回依次连接各点而成的折线所经过的方块坐标，形式为 {@link BlockPos#asLong()}。
+   */
+  static LongStream rasterize(Iterator<Vec3d> points) {
+    return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(new CurveRasterizer(points), Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!hasPending) {
+      if (remainingX + remainingY + remainingZ > 0) {
+        step();
+      } else if (!points.hasNext()) {
+        return false;
+      } else {
+        final Vec3d point = points.next();
+        if (segmentStart == null) {
+          x = MathHelper.floor(point.x);
+          y = MathHelper.floor(point.y);
+          z = MathHelper.floor(point.z);
+          accept(BlockPos.asLong(x, y, z));
+        } else {
+          beginSegment(segmentStart, point);
+        }
+        segmentStart = point;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public long nextLong() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    hasPending = false;
+    return pending;
+  }
+
+  /**
+   * 开始遍历一条新的线段。线段的起点所在的方块就是上一条线段的终点所在的方块，已经返回过，因此不需要再次返回。
+   */
+  private void beginSegment(Vec3d from, Vec3d to) {
+    final int endX = MathHelper.floor(to.x), endY = MathHelper.floor(to.y), endZ = MathHelper.floor(to.z);
+    // 方向由方块坐标之差决定，从而确保遍历一定会到达终点所在的方块
+    stepX = Integer.signum(endX - x);
+    stepY = Integer.signum(endY - y);
+    stepZ = Integer.signum(endZ - z);
+    remainingX = Math.abs(endX - x);
+    remainingY = Math.abs(endY - y);
+    remainingZ = Math.abs(endZ - z);
+    final double dx = to.x - from.x, dy = to.y - from.y, dz = to.z - from.z;
+    tDeltaX = stepX == 0 ? Double.POSITIVE_INFINITY : 1 / Math.abs(dx);
+    tDeltaY = stepY == 0 ? Double.POSITIVE_INFINITY : 1 / Math.abs(dy);
+    tDeltaZ = stepZ == 0 ? Double.POSITIVE_INFINITY : 1 / Math.abs(dz);
+    tMaxX = stepX == 0 ? Double.POSITIVE_INFINITY : (stepX > 0 ? x + 1 - from.x : from.x - x) * tDeltaX;
+    tMaxY = stepY == 0 ? Double.POSITIVE_INFINITY : (stepY > 0 ? y + 1 - from.y : from.y - y) * tDeltaY;
+    tMaxZ = stepZ == 0 ? Double.POSITIVE_INFINITY : (stepZ > 0 ? z + 1 - from.z : from.z - z) * tDeltaZ;
+  }
+
+  /**
+   * 沿着最先到达方块边界的坐标轴移动到下一个方块。已经到达终点所在的方块的坐标轴不会再移动。
+   */
+  private void step() {
+    final double nextX = remainingX > 0 ? tMaxX : Double.POSITIVE_INFINITY;
+    final double nextY = remainingY > 0 ? tMaxY : Double.POSITIVE_INFINITY;
+    final double nextZ = remainingZ > 0 ? tMaxZ : Double.POSITIVE_INFINITY;
+    if (nextX <= nextY && nextX <= nextZ) {
+      x += stepX;
+      tMaxX += tDeltaX;
+      remainingX--;
+    } else if (nextY <= nextZ) {
+      y += stepY;
+      tMaxY += tDeltaY;
+      remainingY--;
+    } else {
+      z += stepZ;
+      tMaxZ += tDeltaZ;
+      remainingZ--;
+    }
+    accept(BlockPos.asLong(x, y, z));
+  }
+
+  private void accept(long pos) {
+    for (int i = 0; i < firstCount; i++) {
+      if (first[i] == pos) {
+        return;
+      }
+    }
+    for (int i = 0; i < recentCount; i++) {
+      if (recent[i] == pos) {
+        return;
+      }
+    }
+    if (firstCount < WINDOW) {
+      first[firstCount++] = pos;
+    }
+    recent[recentIndex] = pos;
+    recentIndex = (recentIndex + 1) % WINDOW;
+    recentCount = Math.min(recentCount + 1, WINDOW);
+    pending = pos;
+    hasPending = true;
+  }
+}
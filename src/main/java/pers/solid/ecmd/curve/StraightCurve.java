@@ -1,18 +1,16 @@
 package pers.solid.ecmd.curve;
 
 import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Iterators;
 import com.mojang.brigadier.StringReader;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.command.CommandSource;
 import net.minecraft.command.argument.PosArgument;
 import net.minecraft.nbt.NbtCompound;
-import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
-import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
-import org.apache.commons.lang3.math.NumberUtils;
 import org.jetbrains.annotations.NotNull;
 import pers.solid.ecmd.argument.EnhancedPosArgumentType;
 import pers.solid.ecmd.argument.SuggestedParser;
@@ -23,63 +21,17 @@ import pers.solid.ecmd.util.StringUtil;
 
 import java.util.Iterator;
 import java.util.function.Function;
-import java.util.stream.IntStream;
-import java.util.stream.Stream;
 
 /**
  * 直线段，由两个点连接而成的直线。语法为 {@code straight(<from>, <to>)} 或 {@code straight(from <from> to <to>)}。
  */
 public record StraightCurve(Vec3d from, Vec3d to) implements Curve {
+  /**
+   * 直线本身就是一条线段，因此只需要起点和终点。加粗后为一个胶囊体。
+   */
   @Override
-  public @NotNull Stream<BlockPos> streamBlockPos() {
-    final BlockPos fromBlockPos = BlockPos.ofFloored(from);
-    final BlockPos toBlockPos = BlockPos.ofFloored(to);
-    if (fromBlockPos.equals(toBlockPos)) {
-      return Stream.of(fromBlockPos);
-    }
-    final BlockPos d = toBlockPos.subtract(fromBlockPos);
-    if (d.getX() == 0 && (d.getY() == 0 || d.getZ() == 0) || (d.getY() == 0 && d.getZ() == 0)) {
-      // 如果至少两个坐标轴之差为零，那么绘制直线。
-      return BlockPos.stream(fromBlockPos, toBlockPos);
-    }
-
-    final int dx = Math.abs(d.getX());
-    final int dy = Math.abs(d.getY());
-    final int dz = Math.abs(d.getZ());
-    final int dMax = NumberUtils.max(dx, dy, dz);
-
-    final Direction.Axis maxAxis, otherAxis1, otherAxis2;
-    if (dMax == dx) {
-      maxAxis = Direction.Axis.X;
-      otherAxis1 = Direction.Axis.Y;
-      otherAxis2 = Direction.Axis.Z;
-    } else if (dMax == dy) {
-      maxAxis = Direction.Axis.Y;
-      otherAxis1 = Direction.Axis.X;
-      otherAxis2 = Direction.Axis.Z;
-    } else {
-      maxAxis = Direction.Axis.Z;
-      otherAxis1 = Direction.Axis.X;
-      otherAxis2 = Direction.Axis.Y;
-    }
-
-    final int dMaxFrom = fromBlockPos.getComponentAlongAxis(maxAxis);
-    final int dMaxTo = toBlockPos.getComponentAlongAxis(maxAxis);
-    final IntStream initialStream = dMaxTo > dMaxFrom ? IntStream.rangeClosed(dMaxFrom, dMaxTo) : IntStream.rangeClosed(-dMaxFrom, -dMaxTo).map(operand -> -operand);
-    final BlockPos.Mutable mutable = new BlockPos.Mutable();
-    final double grad1 = (to.getComponentAlongAxis(otherAxis1) - from.getComponentAlongAxis(otherAxis1)) / (to.getComponentAlongAxis(maxAxis) - from.getComponentAlongAxis(maxAxis));
-    final double grad2 = (to.getComponentAlongAxis(otherAxis2) - from.getComponentAlongAxis(otherAxis2)) / (to.getComponentAlongAxis(maxAxis) - from.getComponentAlongAxis(maxAxis));
-    return initialStream.mapToObj(value -> {
-      // 例如，假如 maxAxis 为 x，componentAxis 为 y，则：
-      // (y - fromY) / (x - fromX) = (toY - fromX) / (toX - fromX)
-      final double componentAxis1 = grad1 * (value + 0.5d - from.getComponentAlongAxis(maxAxis)) + from.getComponentAlongAxis(otherAxis1);
-      final double componentAxis2 = grad2 * (value + 0.5d - from.getComponentAlongAxis(maxAxis)) + from.getComponentAlongAxis(otherAxis2);
-      return switch (maxAxis) {
-        case X -> mutable.set(value, componentAxis1, componentAxis2);
-        case Y -> mutable.set(componentAxis1, value, componentAxis2);
-        case Z -> mutable.set(componentAxis1, componentAxis2, value);
-      };
-    });
+  public @NotNull Iterator<Vec3d> rasterizationPoints() {
+    return Iterators.forArray(from, to);
   }
 
   @Override
@@ -0,0 +1,295 @@
+package pers.solid.ecmd.curve;
+
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.MathHelper;
+import net.minecraft.util.math.Vec3d;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntPredicate;
+import java.util.function.IntToDoubleFunction;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 将依次连接各点而成的折线加粗后转换为方块坐标，即半径为 {@code thickness} 的球沿着折线移动所经过的区域，返回中心与折线的距离小于 {@code thickness} 的方块（与 {@link pers.solid.ecmd.region.SphereRegion} 的判断方式相同）。每条线段加粗后是一个胶囊体（圆柱体及两端的半球），直线就是一个胶囊体，圆弧则由各段弦的胶囊体近似为圆环的一部分。
+ * <p>
+ * 胶囊体是凸的，因此它与每一行（y、z 坐标相同的一行方块）的交集都是连续的：在行中找到最接近线段的方块后，向两侧二分查找边界即可，不会访问胶囊体以外的方块。对于每个 y 坐标，z 坐标的范围也以同样的方式确定。
+ * <p>
+ * 相邻线段的胶囊体会重叠。不使用集合进行去重，而是跳过已经在最先和最近的若干条线段的胶囊体内的方块，线段的数量只由粗细决定，与曲线的长度无关。对于不会在远离之后再次靠近的曲线（例如直线、圆和圆弧），这可以保证每个坐标只返回一次。
+ */
+final class SweptCurveRasterizer implements PrimitiveIterator.OfLong {
+  private static final int[] EMPTY_SPAN = {0, -1};
+  private final Iterator<Vec3d> points;
+  /**
+   * 为 {@code false} 时，各点之间不相连，每个点所在的方块的中心都是一个球。
+   */
+  private final boolean connected;
+  private final double thickness, thicknessSquared;
+  /**
+   * 需要检查重叠的最先和最近的线段的数量。线段的长度通常不小于 0.5，因此相距超过此数量的线段之间的距离超过两倍的粗细，不会重叠。
+   */
+  private final int window;
+  private final List<Capsule> first = new ArrayList<>();
+  private final ArrayDeque<Capsule> recent = new ArrayDeque<>();
+  private int capsuleCount;
+  private Vec3d previousPoint;
+  private Capsule capsule;
+  /**
+   * 之前的、与当前的胶囊体的范围相交的胶囊体。
+   */
+  private List<Capsule> overlapping;
+  private int x, maxX, y, z, maxZ;
+  private boolean hasPending;
+  private long pending;
+
+  private SweptCurveRasterizer(Iterator<Vec3d> points, double thickness, boolean connected) {
+    this.points = points;
+    this.connected = connected;
+    this.thickness = thickness;
+    this.thicknessSquared = thickness * thickness;
+    this.window = Math.max(16, 2 * MathHelper.ceil(2 * thickness) + 2);
+  }
+
+  /**
+   * @param connected 为 {@code true} 时返回加粗后的折线；为 {@code false} 时各点之间不相连，返回以各点所在的方块的中心为球心的球。
+   */
+  static LongStream rasterize(Iterator<Vec3d> points, double thickness, boolean connected) {
+    return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(new SweptCurveRasterizer(points, thickness, connected), Spliterator.ORDERED | Spliterator.NONNULL), false);
+  }
+
+  @Override
+  public boolean hasNext() {
+    while (!hasPending) {
+      if (capsule != null && x <= maxX) {
+        final int currentX = x++;
+        if (!isCoveredByOverlapping(currentX, y, z)) {
+          pending = BlockPos.asLong(currentX, y, z);
+          hasPending = true;
+        }
+      } else if (capsule == null || !nextRow()) {
+        if (!nextCapsule()) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public long nextLong() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    hasPending = false;
+    return pending;
+  }
+
+  private boolean isCoveredByOverlapping(int x, int y, int z) {
+    for (Capsule other : overlapping) {
+      if (other.contains(x, y, z)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 移动到当前的胶囊体中的下一行，并计算这一行中 x 坐标的范围（可能为空）。
+   *
+   * @return 当前的胶囊体是否还有下一行。
+   */
+  private boolean nextRow() {
+    while (++z > maxZ) {
+      if (++y > capsule.maxY) {
+        return false;
+      }
+      final int[] span = capsule.zSpan(y);
+      z = span[0] - 1;
+      maxZ = span[1];
+    }
+    final int[] span = capsule.xSpan(y, z);
+    x = span[0];
+    maxX = span[1];
+    return true;
+  }
+
+  private boolean nextCapsule() {
+    while (points.hasNext()) {
+      Vec3d point = points.next();
+      if (!connected) {
+        point = Vec3d.ofCenter(BlockPos.ofFloored(point));
+        if (point.equals(previousPoint)) {
+          continue;
+        }
+        previousPoint = point;
+        beginCapsule(new Capsule(point, point));
+        return true;
+      } else if (previousPoint == null) {
+        previousPoint = point;
+        if (!points.hasNext()) {
+          // 只有一个点时，返回一个球
+          beginCapsule(new Capsule(point, point));
+          return true;
+        }
+      } else {
+        beginCapsule(new Capsule(previousPoint, point));
+        previousPoint = point;
+        return true;
+      }
+    }
+    capsule = null;
+    return false;
+  }
+
+  private void beginCapsule(Capsule next) {
+    overlapping = new ArrayList<>();
+    for (Capsule other : first) {
+      if (other.intersects(next)) {
+        overlapping.add(other);
+      }
+    }
+    for (Capsule other : recent) {
+      // 已经在 first 中的胶囊体不需要再次加入
+      if (other.index >= first.size() && other.intersects(next)) {
+        overlapping.add(other);
+      }
+    }
+    if (first.size() < window) {
+      first.add(next);
+    }
+    recent.addLast(next);
+    if (recent.size() > window) {
+      recent.removeFirst();
+    }
+    capsule = next;
+    y = next.minY - 1;
+    z = 0;
+    maxZ = -1;
+    x = 0;
+    maxX = -1;
+  }
+
+  /**
+   * 在 {@code [from, to]} 中查找满足 {@code inside} 的最小的数，{@code inside} 在这个范围内必须是先不满足、后满足的，且 {@code to} 一定满足。
+   */
+  private static int lowest(int from, int to, IntPredicate inside) {
+    while (from < to) {
+      final int mid = (int) (((long) from + to) >> 1);
+      if (inside.test(mid)) {
+        to = mid;
+      } else {
+        from = mid + 1;
+      }
+    }
+    return to;
+  }
+
+  /**
+   * 在 {@code [from, to]} 中查找满足 {@code inside} 的最大的数，{@code inside} 在这个范围内必须是先满足、后不满足的，且 {@code from} 一定满足。
+   */
+  private static int highest(int from, int to, IntPredicate inside) {
+    while (from < to) {
+      final int mid = (int) (((long) from + to + 1) >> 1);
+      if (inside.test(mid)) {
+        from = mid;
+      } else {
+        to = mid - 1;
+      }
+    }
+    return from;
+  }
+
+  /**
+   * 计算一行中的范围。{@code distanceSquared} 是凸函数，{@code center} 是它取得最小值的位置（以方块中心计），因此最接近的两个方块之一就是行中最接近线段的方块，从它向两侧的距离都是单调递增的。
+   */
+  private int[] span(double center, int min, int max, IntToDoubleFunction distanceSquared) {
+    final int floor = MathHelper.floor(center - 0.5);
+    final int nearest = distanceSquared.applyAsDouble(floor) <= distanceSquared.applyAsDouble(floor + 1) ? floor : floor + 1;
+    if (nearest < min || nearest > max || !(distanceSquared.applyAsDouble(nearest) < thicknessSquared)) {
+      return EMPTY_SPAN;
+    }
+    final IntPredicate inside = value -> distanceSquared.applyAsDouble(value) < thicknessSquared;
+    return new int[]{lowest(min, nearest, inside), highest(nearest, max, inside)};
+  }
+
+  /**
+   * 线段加粗后的胶囊体。
+   */
+  private final class Capsule {
+    private final int index;
+    private final double ax, ay, az, dx, dy, dz, lengthSquared;
+    /**
+     * 中心可能在胶囊体内的方块的范围。
+     */
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+    private Capsule(Vec3d from, Vec3d to) {
+      index = capsuleCount++;
+      ax = from.x;
+      ay = from.y;
+      az = from.z;
+      dx = to.x - from.x;
+      dy = to.y - from.y;
+      dz = to.z - from.z;
+      lengthSquared = dx * dx + dy * dy + dz * dz;
+      minX = MathHelper.ceil(Math.min(from.x, to.x) - thickness - 0.5);
+      minY = MathHelper.ceil(Math.min(from.y, to.y) - thickness - 0.5);
+      minZ = MathHelper.ceil(Math.min(from.z, to.z) - thickness - 0.5);
+      maxX = MathHelper.floor(Math.max(from.x, to.x) + thickness - 0.5);
+      maxY = MathHelper.floor(Math.max(from.y, to.y) + thickness - 0.5);
+      maxZ = MathHelper.floor(Math.max(from.z, to.z) + thickness - 0.5);
+    }
+
+    private boolean intersects(Capsule other) {
+      return minX <= other.maxX && maxX >= other.minX && minY <= other.maxY && maxY >= other.minY && minZ <= other.maxZ && maxZ >= other.minZ;
+    }
+
+    private double distanceSquared(double px, double py, double pz) {
+      final double s = lengthSquared == 0 ? 0 : MathHelper.clamp(((px - ax) * dx + (py - ay) * dy + (pz - az) * dz) / lengthSquared, 0, 1);
+      final double ex = px - ax - s * dx, ey = py - ay - s * dy, ez = pz - az - s * dz;
+      return ex * ex + ey * ey + ez * ez;
+    }
+
+    /**
+     * 在 yz 平面上，点到线段的投影的距离的平方，即 (py, pz) 这一行与线段的最短距离的平方。
+     */
+    private double rowDistanceSquared(double py, double pz) {
+      final double rowLengthSquared = dy * dy + dz * dz;
+      final double s = rowLengthSquared == 0 ? 0 : MathHelper.clamp(((py - ay) * dy + (pz - az) * dz) / rowLengthSquared, 0, 1);
+      final double ey = py - ay - s * dy, ez = pz - az - s * dz;
+      return ey * ey + ez * ez;
+    }
+
+    private boolean contains(int x, int y, int z) {
+      return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ && distanceSquared(x + 0.5, y + 0.5, z + 0.5) < thicknessSquared;
+    }
+
+    /**
+     * 胶囊体中 y 坐标为指定值的方块的 z 坐标的范围。
+     */
+    private int[] zSpan(int y) {
+      final double py = y + 0.5;
+      // yz 平面上，与直线 y = py 最接近的线段上的点，如果线段与 z 轴平行，则线段上的所有点都同样接近
+      final double s = dy == 0 ? 0.5 : MathHelper.clamp((py - ay) / dy, 0, 1);
+      return span(az + s * dz, minZ, maxZ, value -> rowDistanceSquared(py, value + 0.5));
+    }
+
+    /**
+     * 胶囊体中指定的一行中的方块的 x 坐标的范围。
+     */
+    private int[] xSpan(int y, int z) {
+      final double py = y + 0.5, pz = z + 0.5;
+      // 在 yz 平面上最接近这一行的线段上的点，其 x 坐标就是这一行中最接近线段的位置
+      final double rowLengthSquared = dy * dy + dz * dz;
+      final double s = rowLengthSquared == 0 ? 0.5 : MathHelper.clamp(((py - ay) * dy + (pz - az) * dz) / rowLengthSquared, 0, 1);
+      return span(ax + s * dx, minX, maxX, value -> distanceSquared(value + 0.5, py, pz));
+    }
+  }
+}
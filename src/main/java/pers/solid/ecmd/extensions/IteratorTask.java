@@ -1,18 +1,64 @@
 package pers.solid.ecmd.extensions;
 
 import com.google.common.collect.ForwardingIterator;
+import net.minecraft.entity.Entity;
+import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.Text;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.solid.ecmd.configs.TasksConfig;
 
 import java.util.Iterator;
 import java.util.UUID;
+import java.util.function.LongSupplier;
 
 public class IteratorTask<T> extends ForwardingIterator<T> {
+  /**
+   * The weight of the latest batch when updating {@link #nanosPerStep}.
+   */
+  private static final double SMOOTHING = 0.25;
+  /**
+   * How many steps are executed between two checks of the clock inside a batch.
+   */
+  private static final int CLOCK_CHECK_INTERVAL = 64;
   public final Text name;
   public final UUID uuid;
   private final Iterator<T> delegate;
   private boolean started;
   public boolean suspended = false;
+  public TaskPriority priority = TaskPriority.NORMAL;
+  /**
+   * The key of the source that submitted the task, used by {@link TaskScheduler} to share the tick budget fairly. It is the UUID of the entity for sources with an entity, or the name of the source otherwise. Tasks without an owner share one group.
+   */
+  private @Nullable Object owner;
+  private @Nullable Text ownerName;
+  /**
+   * The number of steps in the next batch, which is adjusted according to the time actually taken.
+   */
+  private int batchSize = TasksConfig.CURRENT.initialBatchSize;
+  /**
+   * The smoothed average of nanoseconds that one step takes. It is 0 if no batch has been measured yet.
+   */
+  private double nanosPerStep = 0;
+  /**
+   * The number of steps that have been executed, which usually equals the number of blocks visited.
+   */
+  private long stepsDone;
+  /**
+   * The number of steps expected to be executed in total, usually taken from {@link pers.solid.ecmd.region.Region#numberOfBlocksAffected()}, or -1 if unknown.
+   */
+  private long expectedSteps = -1;
+  /**
+   * Supplies the number of blocks actually changed by the task, or {@code null} if the task does not count it.
+   */
+  private @Nullable LongSupplier changedCounter;
+  /**
+   * The value of {@link TaskTickStatistics#getTicks()} when the task was added, or -1 if it has not been added to any executor.
+   */
+  private long addedTick = -1;
+  private int ticksAdvanced;
+  private long nanosLastTick;
+  private long totalNanos;
 
   public IteratorTask(@NotNull Text name, @NotNull UUID uuid, @NotNull Iterator<T> delegate) {
     this.name = name;
@@ -31,7 +77,150 @@ public class IteratorTask<T> extends ForwardingIterator<T> {
       ThreadExecutorExtension.LOGGER.info("Starting iterator task {}", name.getString());
       started = true;
     }
-    return super.next();
+    final T next = super.next();
+    stepsDone++;
+    return next;
+  }
+
+  /**
+   * Runs the task batch by batch, until it is exhausted or the deadline is reached. After each batch, the time it actually took is measured, and the size of the next batch is estimated from it, so that a batch usually ends close to the deadline. As the estimation lags behind when steps suddenly become more expensive, the clock is also checked every {@link #CLOCK_CHECK_INTERVAL} steps inside a batch. A single step is never interrupted, so the deadline may still be exceeded by one very expensive step.
+   *
+   * @param deadline The deadline in terms of {@link System#nanoTime()}.
+   * @return The number of steps executed.
+   */
+  public int advance(long deadline) {
+    int steps = 0;
+    final long start = System.nanoTime();
+    long now = start;
+    while (now < deadline && hasNext()) {
+      final int batch = estimateBatchSize(deadline - now);
+      int i = 0;
+      while (i < batch && hasNext()) {
+        next();
+        i++;
+        if (i % CLOCK_CHECK_INTERVAL == 0 && System.nanoTime() >= deadline) {
+          break;
+        }
+      }
+      final long end = System.nanoTime();
+      final double observed = (double) (end - now) / i;
+      nanosPerStep = nanosPerStep <= 0 ? observed : nanosPerStep * (1 - SMOOTHING) + observed * SMOOTHING;
+      batchSize = batch;
+      steps += i;
+      now = end;
+    }
+    ticksAdvanced++;
+    nanosLastTick = now - start;
+    totalNanos += nanosLastTick;
+    return steps;
+  }
+
+  private int estimateBatchSize(long remainingNanos) {
+    final TasksConfig config = TasksConfig.CURRENT;
+    if (nanosPerStep <= 0) {
+      return Math.max(config.minBatchSize, Math.min(batchSize, config.maxBatchSize));
+    }
+    // The batch grows at most twice each time, in case that the previous steps are much cheaper than the following ones.
+    final double estimated = Math.min(remainingNanos / nanosPerStep, batchSize * 2d);
+    return (int) Math.max(config.minBatchSize, Math.min(estimated, config.maxBatchSize));
+  }
+
+  /**
+   * Specifies the number of steps expected, so that the remaining work and the ETA can be estimated.
+   */
+  public IteratorTask<T> setExpectedSteps(long expectedSteps) {
+    this.expectedSteps = expectedSteps;
+    return this;
+  }
+
+  /**
+   * Specifies how to get the number of blocks actually changed by the task.
+   */
+  public IteratorTask<T> setChangedCounter(@Nullable LongSupplier changedCounter) {
+    this.changedCounter = changedCounter;
+    return this;
+  }
+
+  /**
+   * Specifies the source that submitted the task.
+   */
+  public IteratorTask<T> setOwner(ServerCommandSource source) {
+    final Entity entity = source.getEntity();
+    this.owner = entity != null ? entity.getUuid() : source.getName();
+    this.ownerName = source.getDisplayName();
+    return this;
+  }
+
+  public @Nullable Object getOwner() {
+    return owner;
+  }
+
+  public @Nullable Text getOwnerName() {
+    return ownerName;
+  }
+
+  void onAdded(long tick) {
+    if (addedTick == -1) {
+      addedTick = tick;
+    }
+  }
+
+  public long getStepsDone() {
+    return stepsDone;
+  }
+
+  public long getExpectedSteps() {
+    return expectedSteps;
+  }
+
+  /**
+   * @return The number of blocks changed, or -1 if the task does not count it.
+   */
+  public long getBlocksChanged() {
+    return changedCounter == null ? -1 : changedCounter.getAsLong();
+  }
+
+  /**
+   * @return The number of ticks (in which there are tasks to run) since the task was added, including those in which it is suspended or not reached.
+   */
+  public long getTicksAlive(TaskTickStatistics statistics) {
+    return addedTick == -1 ? ticksAdvanced : statistics.getTicks() - addedTick;
+  }
+
+  public int getTicksAdvanced() {
+    return ticksAdvanced;
+  }
+
+  public long getNanosLastTick() {
+    return nanosLastTick;
+  }
+
+  public long getAverageNanosPerTick() {
+    return ticksAdvanced == 0 ? 0 : totalNanos / ticksAdvanced;
+  }
+
+  public double getNanosPerStep() {
+    return nanosPerStep;
+  }
+
+  /**
+   * @return The estimated number of remaining steps, or -1 if unknown. As the steps of a task may include other work than visiting blocks (such as placing the blocks that match a predicate), it is only an estimation.
+   */
+  public long getRemainingSteps() {
+    return expectedSteps < 0 ? -1 : Math.max(0, expectedSteps - stepsDone);
+  }
+
+  /**
+   * Estimates the number of ticks to complete the task according to the average steps per tick so far, which reflects the share of the tick budget that the task actually gets.
+   *
+   * @return The estimated number of ticks, or -1 if unknown.
+   */
+  public long getEstimatedRemainingTicks() {
+    final long remainingSteps = getRemainingSteps();
+    if (remainingSteps < 0 || stepsDone == 0 || ticksAdvanced == 0) {
+      return -1;
+    }
+    return (long) Math.ceil(remainingSteps / ((double) stepsDone / ticksAdvanced));
   }
 
   @Override
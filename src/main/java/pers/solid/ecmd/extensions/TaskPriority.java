@@ -0,0 +1,51 @@
+package pers.solid.ecmd.extensions;
+
+import com.google.common.collect.ImmutableList;
+import net.minecraft.text.MutableText;
+import net.minecraft.text.Text;
+import net.minecraft.util.StringIdentifiable;
+
+/**
+ * 计划任务的优先级。优先级越高，任务在每一刻中分到的时间越多。
+ *
+ * @see TaskScheduler
+ */
+public enum TaskPriority implements StringIdentifiable {
+  LOW("low", 1),
+  NORMAL("normal", 2),
+  HIGH("high", 4),
+  /**
+   * 最高的优先级，通常由管理员通过 {@code /tasks priority} 指定。此优先级的任务不受每个来源的并发数量和时间的限制。
+   */
+  URGENT("urgent", 8);
+  public static final StringIdentifiable.Codec<TaskPriority> CODEC = StringIdentifiable.createCodec(TaskPriority::values);
+  public static final ImmutableList<TaskPriority> VALUES = ImmutableList.copyOf(values());
+  private final String name;
+  /**
+   * 分配时间时的权重。
+   */
+  public final int weight;
+
+  TaskPriority(String name, int weight) {
+    this.name = name;
+    this.weight = weight;
+  }
+
+  public boolean bypassesQuota() {
+    return this == URGENT;
+  }
+
+  @Override
+  public String asString() {
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  public MutableText getDisplayName() {
+    return Text.translatable("enhanced_commands.task_priority." + name);
+  }
+}
@@ -0,0 +1,69 @@
+package pers.solid.ecmd.extensions;
+
+import org.jetbrains.annotations.Unmodifiable;
+import pers.solid.ecmd.configs.TasksConfig;
+
+import java.util.*;
+
+/**
+ * Decides which tasks run in a tick and how the tick budget is shared among them. Tasks are grouped by their {@linkplain IteratorTask#getOwner() owners}, so that one source submitting a huge task (or many tasks) does not starve the others:
+ * <ul>
+ *   <li>Each owner gets a share of the budget in proportion to the highest {@linkplain TaskPriority#weight weight} of its tasks, regardless of how many tasks it has. The order of owners rotates every tick, so that the time left by the owners is not always given to the same one.</li>
+ *   <li>Within an owner, only the first {@link TasksConfig#maxConcurrentTasksPerOwner} tasks of the highest priorities run, and they share the budget of the owner in proportion to their weights. The owner cannot use more than {@link TasksConfig#ownerBudgetMillis} in a tick.</li>
+ *   <li>Tasks of {@link TaskPriority#URGENT} bypass the two quotas above.</li>
+ * </ul>
+ */
+public final class TaskScheduler {
+  private TaskScheduler() {
+  }
+
+  /**
+   * @param tasks The tasks that are not suspended, in the order they are added.
+   * @param tick  The current tick, used to rotate the order of owners.
+   * @return The groups of tasks to run in this tick, in the order they run.
+   */
+  public static @Unmodifiable List<OwnerGroup> schedule(Collection<IteratorTask<?>> tasks, long tick) {
+    final TasksConfig config = TasksConfig.CURRENT;
+    final Map<Object, List<IteratorTask<?>>> tasksByOwner = new LinkedHashMap<>();
+    for (IteratorTask<?> task : tasks) {
+      if (task.suspended) continue;
+      tasksByOwner.computeIfAbsent(task.getOwner(), o -> new ArrayList<>()).add(task);
+    }
+    final int size = tasksByOwner.size();
+    if (size == 0) return List.of();
+    final OwnerGroup[] groups = new OwnerGroup[size];
+    final int offset = (int) Math.floorMod(tick, (long) size);
+    // A non-positive value would not let any task run, so at least one task of each owner runs.
+    final int maxConcurrentTasksPerOwner = Math.max(1, config.maxConcurrentTasksPerOwner);
+    int index = 0;
+    for (List<IteratorTask<?>> ownerTasks : tasksByOwner.values()) {
+      // The sort is stable, so the tasks of the same priority keep the order they are added.
+      ownerTasks.sort(Comparator.comparing((IteratorTask<?> task) -> task.priority).reversed());
+      final List<IteratorTask<?>> running = new ArrayList<>();
+      int runningWithQuota = 0;
+      boolean bypassesQuota = false;
+      for (IteratorTask<?> task : ownerTasks) {
+        if (task.priority.bypassesQuota()) {
+          bypassesQuota = true;
+          running.add(task);
+        } else if (runningWithQuota < maxConcurrentTasksPerOwner) {
+          runningWithQuota++;
+          running.add(task);
+        }
+      }
+      if (!running.isEmpty()) {
+        groups[Math.floorMod(index - offset, size)] = new OwnerGroup(running, running.get(0).priority.weight, bypassesQuota);
+      }
+      index++;
+    }
+    return Arrays.stream(groups).filter(Objects::nonNull).toList();
+  }
+
+  /**
+   * @param tasks         The tasks of the owner to run in this tick, in the order they run.
+   * @param weight        The weight of the owner when sharing the budget of the tick.
+   * @param bypassesQuota Whether the owner is not limited by {@link TasksConfig#ownerBudgetMillis}.
+   */
+  public record OwnerGroup(List<IteratorTask<?>> tasks, int weight, boolean bypassesQuota) {
+  }
+}
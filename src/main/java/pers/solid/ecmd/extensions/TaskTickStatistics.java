@@ -0,0 +1,85 @@
+package pers.solid.ecmd.extensions;
+
+import java.util.Arrays;
+
+/**
+ * The rolling statistics of the time spent in {@link ThreadExecutorExtension#ec_advanceTasks} in each tick. Only ticks in which there are tasks are recorded.
+ */
+public final class TaskTickStatistics {
+  /**
+   * The number of recent ticks kept for the statistics.
+   */
+  public static final int WINDOW = 100;
+  /**
+   * The upper bounds (exclusive) of the buckets of the histogram, in milliseconds. The last bucket has no upper bound.
+   */
+  public static final int[] BUCKET_BOUNDS_MILLIS = {1, 2, 5, 10, 20, 50};
+  private final long[] samples = new long[WINDOW];
+  private int size;
+  private int cursor;
+  private long ticks;
+
+  public void record(long nanos) {
+    samples[cursor] = nanos;
+    cursor = (cursor + 1) % WINDOW;
+    if (size < WINDOW) size++;
+    ticks++;
+  }
+
+  /**
+   * @return The number of ticks recorded since the server started, including those that have been out of the window.
+   */
+  public long getTicks() {
+    return ticks;
+  }
+
+  /**
+   * @return The number of ticks currently in the window.
+   */
+  public int size() {
+    return size;
+  }
+
+  public long getAverageNanos() {
+    if (size == 0) return 0;
+    long sum = 0;
+    for (int i = 0; i < size; i++) {
+      sum += samples[i];
+    }
+    return sum / size;
+  }
+
+  public long getMaxNanos() {
+    long max = 0;
+    for (int i = 0; i < size; i++) {
+      max = Math.max(max, samples[i]);
+    }
+    return max;
+  }
+
+  /**
+   * @param percentile The percentile, in the range [0, 1].
+   */
+  public long getPercentileNanos(double percentile) {
+    if (size == 0) return 0;
+    final long[] sorted = Arrays.copyOf(samples, size);
+    Arrays.sort(sorted);
+    final int index = (int) Math.ceil(percentile * size) - 1;
+    return sorted[Math.max(0, Math.min(size - 1, index))];
+  }
+
+  /**
+   * @return The number of ticks in each bucket defined by {@link #BUCKET_BOUNDS_MILLIS}, with an extra bucket for ticks beyond the last bound.
+   */
+  public int[] getHistogram() {
+    final int[] histogram = new int[BUCKET_BOUNDS_MILLIS.length + 1];
+    for (int i = 0; i < size; i++) {
+      int bucket = 0;
+      while (bucket < BUCKET_BOUNDS_MILLIS.length && samples[i] >= BUCKET_BOUNDS_MILLIS[bucket] * 1_000_000L) {
+        bucket++;
+      }
+      histogram[bucket]++;
+    }
+    return histogram;
+  }
+}
@@ -1,14 +1,17 @@
 package pers.solid.ecmd.extensions;
 
-import com.google.common.collect.Iterables;
 import net.minecraft.text.Text;
+import net.minecraft.text.TranslatableTextContent;
+import net.minecraft.util.profiler.Profiler;
 import net.minecraft.util.thread.ThreadExecutor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pers.solid.ecmd.command.FillReplaceCommand;
+import pers.solid.ecmd.configs.TasksConfig;
 
 import java.lang.ref.WeakReference;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.UUID;
@@ -20,43 +23,86 @@ public interface ThreadExecutorExtension {
   Logger LOGGER = LoggerFactory.getLogger(ThreadExecutorExtension.class);
 
   default void ec_addIteratorTask(IteratorTask<?> task) {
+    task.onAdded(ec_getTaskTickStatistics().getTicks());
     ec_getIteratorTasks().add(task);
     ec_getUUIDToIteratorTasks().put(task.uuid, new WeakReference<>(task));
   }
 
-  default void ec_addIteratorTask(Text name, Iterator<?> iterator) {
-    ec_addIteratorTask(new IteratorTask<>(name, UUID.randomUUID(), iterator));
+  /**
+   * @return The task created, so that the caller can specify its expected steps and changed counter for {@code /tasks stats}.
+   */
+  default IteratorTask<?> ec_addIteratorTask(Text name, Iterator<?> iterator) {
+    final IteratorTask<?> task = new IteratorTask<>(name, UUID.randomUUID(), iterator);
+    ec_addIteratorTask(task);
+    return task;
   }
 
   Queue<IteratorTask<?>> ec_getIteratorTasks();
 
   Map<UUID, WeakReference<IteratorTask<?>>> ec_getUUIDToIteratorTasks();
 
+  TaskTickStatistics ec_getTaskTickStatistics();
+
   /**
-   * The method is used to handle tasks, such as those created by {@link FillReplaceCommand} when handling quantities of blocks.
+   * The method is used to handle tasks, such as those created by {@link FillReplaceCommand} when handling quantities of blocks. All tasks share the time budget specified in {@link TasksConfig#tickBudgetMillis}, which is distributed by {@link TaskScheduler} among the owners of the tasks, and then among the tasks of each owner. The time not used by an owner or a task is left to those after it.
+   * <p>
+   * The time spent in each tick is recorded in {@link #ec_getTaskTickStatistics()}. Each task is run in a profiler section named after the translation key of its name (not the name itself, so that the number of sections stays bounded), so that the profiler can attribute the cost to the kind of tasks.
    *
+   * @param profiler The profiler of the server or client, whose section {@code enhanced_commands:tick_iterator_task} has been pushed by the caller.
    * @see pers.solid.ecmd.command.TasksCommand
+   * @see IteratorTask#advance(long)
    */
-  default void ec_advanceTasks() {
+  default void ec_advanceTasks(Profiler profiler) {
     final Queue<IteratorTask<?>> iteratorTasks = ec_getIteratorTasks();
-    final Iterator<IteratorTask<?>> limit = Iterables.limit(iteratorTasks, 8).iterator();
-    while (limit.hasNext()) {
-      final IteratorTask<?> task = limit.next();
-      if (task.suspended) continue;
-      if (!task.hasNext()) {
-        // Remove the task when completed.
-        LOGGER.info("Task {} completed.", task);
-        limit.remove();
-        ec_getUUIDToIteratorTasks().remove(task.uuid);
-        continue;
+    if (iteratorTasks.isEmpty()) return;
+    final TaskTickStatistics statistics = ec_getTaskTickStatistics();
+    final long tickStart = System.nanoTime();
+    final long deadline = tickStart + (long) (TasksConfig.CURRENT.tickBudgetMillis * 1_000_000);
+    final long ownerBudget = (long) (TasksConfig.CURRENT.ownerBudgetMillis * 1_000_000);
+    final List<TaskScheduler.OwnerGroup> groups = TaskScheduler.schedule(iteratorTasks, statistics.getTicks());
+    int remainingOwnerWeight = 0;
+    for (TaskScheduler.OwnerGroup group : groups) {
+      remainingOwnerWeight += group.weight();
+    }
+    for (TaskScheduler.OwnerGroup group : groups) {
+      long now = System.nanoTime();
+      if (now >= deadline) break;
+      long ownerDeadline = now + (deadline - now) * group.weight() / remainingOwnerWeight;
+      if (!group.bypassesQuota()) {
+        ownerDeadline = Math.min(ownerDeadline, now + ownerBudget);
       }
-      try {
-        task.next();
-      } catch (Throwable throwable) {
-        LOGGER.error("Error when executing task {}, removing!", task, throwable);
-        limit.remove();
-        ec_getUUIDToIteratorTasks().remove(task.uuid);
+      remainingOwnerWeight -= group.weight();
+      int remainingTaskWeight = 0;
+      for (IteratorTask<?> task : group.tasks()) {
+        remainingTaskWeight += task.priority.weight;
+      }
+      for (IteratorTask<?> task : group.tasks()) {
+        now = System.nanoTime();
+        if (now >= ownerDeadline) break;
+        final long taskDeadline = now + (ownerDeadline - now) * task.priority.weight / remainingTaskWeight;
+        remainingTaskWeight -= task.priority.weight;
+        profiler.push(() -> getProfilerName(task));
+        try {
+          task.advance(taskDeadline);
+          if (!task.hasNext()) {
+            // Remove the task when completed.
+            LOGGER.info("Task {} completed.", task);
+            iteratorTasks.remove(task);
+            ec_getUUIDToIteratorTasks().remove(task.uuid);
+          }
+        } catch (Throwable throwable) {
+          LOGGER.error("Error when executing task {}, removing!", task, throwable);
+          iteratorTasks.remove(task);
+          ec_getUUIDToIteratorTasks().remove(task.uuid);
+        } finally {
+          profiler.pop();
+        }
       }
     }
+    statistics.record(System.nanoTime() - tickStart);
+  }
+
+  private static String getProfilerName(IteratorTask<?> task) {
+    return task.name.getContent() instanceof TranslatableTextContent translatable ? translatable.getKey() : "task";
   }
 }
@@ -5,7 +5,6 @@ import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
-import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.command.argument.BlockStateArgument;
 import net.minecraft.nbt.NbtCompound;
@@ -18,10 +17,10 @@ import org.apache.commons.lang3.mutable.MutableObject;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 import pers.solid.ecmd.argument.SuggestedParser;
+import pers.solid.ecmd.block.BulkBlockWriter;
 import pers.solid.ecmd.command.FillReplaceCommand;
 import pers.solid.ecmd.util.ExpressionConvertible;
 import pers.solid.ecmd.util.NbtConvertible;
-import pers.solid.ecmd.util.mixin.MixinShared;
 
 /**
  * 方块函数，用于定义如何在世界的某个地方设置方块。它类似于原版中的 {@link BlockStateArgument} 以及 WorldEdit 中的方块蒙版（block mask）。方块函数不止定义方块，有可能是对方块本身进行修改，也有可能对方块实体进行修改。由于它是在已有方块的基础上进行修改的，故称为方块函数。
@@ -34,22 +33,22 @@ public interface BlockFunction extends ExpressionConvertible, NbtConvertible, Bl
   }
 
   default boolean setBlock(World world, BlockPos pos, int flags, int modFlags) {
+    return setBlock(new BulkBlockWriter(world, flags, modFlags), pos);
+  }
+
+  /**
+   * 通过 {@link BulkBlockWriter} 在指定的位置设置方块。在大量设置方块时，应该共用同一个 {@link BulkBlockWriter}。
+   */
+  default boolean setBlock(BulkBlockWriter writer, BlockPos pos) {
+    final World world = writer.getWorld();
+    final int flags = writer.getFlags();
     final BlockState origState = world.getBlockState(pos);
     MutableObject<NbtCompound> blockEntityData = new MutableObject<>(null);
     BlockState modifiedState = getModifiedState(origState, origState, world, pos, flags, blockEntityData);
-    if ((modFlags & FillReplaceCommand.POST_PROCESS_FLAG) != 0) {
+    if ((writer.getModFlags() & FillReplaceCommand.POST_PROCESS_FLAG) != 0) {
       modifiedState = Block.postProcessState(modifiedState, world, pos);
     }
-    boolean result = MixinShared.setBlockStateWithModFlags(world, pos, modifiedState, flags, modFlags);
-    final BlockEntity blockEntity = world.getBlockEntity(pos);
-    if (blockEntity != null) {
-      final NbtCompound modifiedData = blockEntityData.getValue();
-      if (modifiedData != null) {
-        blockEntity.readNbt(modifiedData);
-        result = true;
-      }
-    }
-    return result;
+    return writer.setBlockState(pos, modifiedState, blockEntityData.getValue());
   }
 
   /**
@@ -67,6 +66,13 @@ public interface BlockFunction extends ExpressionConvertible, NbtConvertible, Bl
   @NotNull
   BlockState getModifiedState(BlockState blockState, BlockState origState, World world, BlockPos pos, int flags, MutableObject<NbtCompound> blockEntityData);
 
+  /**
+   * 此方块函数是否是确定的。确定的方块函数返回的方块状态只取决于 {@code blockState} 和 {@code origState} 参数，不取决于坐标、世界中的其他方块以及随机数，也不会修改 {@code blockEntityData}。确定的方块函数可以由 {@link MemoizedBlockFunction} 缓存每个方块状态的结果。
+   */
+  default boolean isDeterministic() {
+    return false;
+  }
+
   void writeNbt(@NotNull NbtCompound nbtCompound);
 
   @NotNull
@@ -36,6 +36,11 @@ public record DryBlockFunction(@Nullable BlockFunction blockFunction) implements
     return state;
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return blockFunction == null || blockFunction.isDeterministic();
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     if (blockFunction != null) {
@@ -61,6 +61,11 @@ public record IdReplaceBlockFunction(Pattern pattern, String replacement, Regist
     return registryWrapper.getOptional(RegistryKey.of(RegistryKeys.BLOCK, identifier)).map(blockReference -> blockReference.value().getDefaultState()).orElse(blockState);
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     nbtCompound.putString("pattern", pattern.pattern());
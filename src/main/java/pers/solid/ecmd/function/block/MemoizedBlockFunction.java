@@ -0,0 +1,87 @@
+package pers.solid.ecmd.function.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 缓存{@linkplain BlockFunction#isDeterministic() 确定的}方块函数的结果。缓存是以 {@link Block#STATE_IDS} 中的数字 id 为索引的 {@code int[]}，在使用时逐渐填充，因此每个方块状态只会被原先的方块函数计算一次，之后只需要查找一次数组。
+ * <p>
+ * 仅当 {@code blockState} 与 {@code origState} 相同时（例如直接在世界中放置方块时）才会使用缓存，否则会直接调用原先的方块函数。此方块函数的描述、类型和 NBT 都与原先的方块函数相同。
+ */
+public final class MemoizedBlockFunction implements BlockFunction {
+  private final @NotNull BlockFunction original;
+  /**
+   * 修改后的方块状态的 id 加一，0 表示尚未计算。
+   */
+  private final int[] table;
+
+  private MemoizedBlockFunction(@NotNull BlockFunction original) {
+    this.original = original;
+    this.table = new int[Block.STATE_IDS.size()];
+  }
+
+  /**
+   * 如果方块函数是确定的，则返回缓存其结果的方块函数，否则直接返回原先的方块函数。
+   */
+  public static BlockFunction of(BlockFunction blockFunction) {
+    if (blockFunction instanceof MemoizedBlockFunction || !blockFunction.isDeterministic()) {
+      return blockFunction;
+    }
+    return new MemoizedBlockFunction(blockFunction);
+  }
+
+  public @NotNull BlockFunction getOriginal() {
+    return original;
+  }
+
+  @Override
+  public @NotNull BlockState getModifiedState(BlockState blockState, BlockState origState, World world, BlockPos pos, int flags, MutableObject<NbtCompound> blockEntityData) {
+    if (blockState != origState) {
+      return original.getModifiedState(blockState, origState, world, pos, flags, blockEntityData);
+    }
+    final int id = Block.getRawIdFromState(blockState);
+    if (id < 0 || id >= table.length) {
+      return original.getModifiedState(blockState, origState, world, pos, flags, blockEntityData);
+    }
+    final int cached = table[id];
+    if (cached != 0) {
+      return Block.getStateFromRawId(cached - 1);
+    }
+    final BlockState result = original.getModifiedState(blockState, origState, world, pos, flags, blockEntityData);
+    final int resultId = Block.getRawIdFromState(result);
+    if (resultId >= 0) {
+      table[id] = resultId + 1;
+    }
+    return result;
+  }
+
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
+  @Override
+  public void writeNbt(@NotNull NbtCompound nbtCompound) {
+    original.writeNbt(nbtCompound);
+  }
+
+  @Override
+  public @NotNull BlockFunctionType<?> getType() {
+    return original.getType();
+  }
+
+  @Override
+  public @NotNull String asString() {
+    return original.asString();
+  }
+
+  @Override
+  public String toString() {
+    return "MemoizedBlockFunction[" + original + "]";
+  }
+}
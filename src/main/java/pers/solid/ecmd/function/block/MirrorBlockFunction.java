@@ -30,6 +30,11 @@ public record MirrorBlockFunction(@NotNull EnumOrRandom<BlockMirror> mirror) imp
     return blockState.mirror(mirror.apply(world.getRandom()));
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return mirror instanceof EnumOrRandom.Instance;
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     nbtCompound.putString("mirror", mirror.asString());
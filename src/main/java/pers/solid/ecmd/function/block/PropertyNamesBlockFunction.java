@@ -39,6 +39,11 @@ public record PropertyNamesBlockFunction(@NotNull Collection<PropertyNameFunctio
     return blockState;
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return propertyNameFunctions.stream().allMatch(PropertyNameFunction::isDeterministic);
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     final NbtList nbtList = new NbtList();
@@ -24,6 +24,11 @@ public record RotateBlockFunction(@NotNull EnumOrRandom<BlockRotation> rotation)
     return blockState.rotate(rotation.apply(world.getRandom()));
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return rotation instanceof EnumOrRandom.Instance;
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     nbtCompound.putString("rotation", rotation.asString());
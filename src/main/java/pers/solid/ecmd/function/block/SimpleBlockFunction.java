@@ -47,6 +47,11 @@ public record SimpleBlockFunction(Block block, Collection<PropertyFunction<?>> p
     return stateToPlace;
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return propertyFunctions.stream().allMatch(PropertyFunction::isDeterministic);
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     nbtCompound.putString("block", Registries.BLOCK.getId(block).toString());
@@ -10,8 +10,8 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.item.Items;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
+import net.minecraft.recipe.RecipeManager;
 import net.minecraft.recipe.RecipeType;
-import net.minecraft.recipe.StonecuttingRecipe;
 import net.minecraft.state.property.Properties;
 import net.minecraft.state.property.Property;
 import net.minecraft.util.math.BlockPos;
@@ -23,9 +23,18 @@ import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
 import pers.solid.ecmd.util.StateUtil;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 public record StonecutBlockFunction(@Nullable BlockFunction blockFunction) implements BlockFunction {
+  /**
+   * 每个配方管理器中，各物品可以切石得到的物品。切石的结果是随机选择的，因此无法缓存方块状态，但是可以缓存配方的查询结果，以免每个方块都查询一次所有的配方。配方管理器在重新加载数据包时会被替换，因此使用弱引用。
+   */
+  private static final Map<RecipeManager, Map<Item, List<ItemStack>>> OUTPUTS = Collections.synchronizedMap(new WeakHashMap<>());
+
   @Override
   public @NotNull String asString() {
     return "stonecut(" + (blockFunction == null ? "" : blockFunction.asString()) + ")";
@@ -40,11 +49,11 @@ public record StonecutBlockFunction(@Nullable BlockFunction blockFunction) imple
     if (item == Items.AIR) {
       return blockState;
     }
-    final List<StonecuttingRecipe> allMatches = world.getRecipeManager().getAllMatches(RecipeType.STONECUTTING, new SimpleInventory(item.getDefaultStack()), world);
-    if (allMatches.isEmpty()) {
+    final List<ItemStack> outputs = getOutputs(world, item);
+    if (outputs.isEmpty()) {
       return blockState;
     }
-    final ItemStack output = allMatches.get(world.getRandom().nextInt(allMatches.size())).getOutput(world.getRegistryManager());
+    final ItemStack output = outputs.get(world.getRandom().nextInt(outputs.size()));
     if (output.getItem() instanceof BlockItem blockItem) {
       BlockState result = StateUtil.getBlockWithRandomProperties(blockItem.getBlock(), world.getRandom());
       for (Property<?> property : result.getProperties()) {
@@ -66,6 +75,14 @@ public record StonecutBlockFunction(@Nullable BlockFunction blockFunction) imple
     }
   }
 
+  private static List<ItemStack> getOutputs(World world, Item item) {
+    return OUTPUTS.computeIfAbsent(world.getRecipeManager(), recipeManager -> new ConcurrentHashMap<>())
+        .computeIfAbsent(item, i -> world.getRecipeManager().getAllMatches(RecipeType.STONECUTTING, new SimpleInventory(i.getDefaultStack()), world)
+            .stream()
+            .map(recipe -> recipe.getOutput(world.getRegistryManager()))
+            .toList());
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     if (blockFunction != null) {
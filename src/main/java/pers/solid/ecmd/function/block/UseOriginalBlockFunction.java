@@ -26,6 +26,11 @@ public enum UseOriginalBlockFunction implements BlockFunction {
     return origState;
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return true;
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
   }
@@ -28,6 +28,11 @@ public record AllRandomPropertyFunction(@NotNull Collection<Property<?>> except)
     }
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return false;
+  }
+
   @Override
   public Property<Integer> property() {
     return null;
@@ -29,6 +29,11 @@ public record AllRandomPropertyNameFunction(@NotNull Collection<String> except)
     }
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return false;
+  }
+
   @Override
   public String propertyName() {
     return null;
@@ -28,6 +28,13 @@ public interface PropertyFunction<T extends Comparable<T>> extends ExpressionCon
   @Contract(pure = true)
   BlockState getModifiedState(BlockState blockState, BlockState origState, Random random);
 
+  /**
+   * 该函数是否是确定的，即对于相同的 {@code blockState} 和 {@code origState}，总是返回相同的方块状态，而不使用 {@code random}。
+   */
+  default boolean isDeterministic() {
+    return true;
+  }
+
   /**
    * 该函数需要修改的那个属性，必须是准确的属性，而非根据属性的名称来匹配到那个名称的属性。
    */
@@ -36,6 +36,13 @@ public interface PropertyNameFunction extends ExpressionConvertible, NbtConverti
   @Contract(pure = true)
   BlockState getModifiedState(BlockState origState, BlockState blockState, Random random);
 
+  /**
+   * 该函数是否是确定的，即对于相同的 {@code origState} 和 {@code blockState}，总是返回相同的方块状态，而不使用 {@code random}。
+   */
+  default boolean isDeterministic() {
+    return true;
+  }
+
   @Contract(pure = true)
   String propertyName();
 
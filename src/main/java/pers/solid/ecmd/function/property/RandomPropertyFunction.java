@@ -28,6 +28,11 @@ public record RandomPropertyFunction<T extends Comparable<T>>(Property<T> proper
     }
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return false;
+  }
+
   @Override
   public void writeNbt(@NotNull NbtCompound nbtCompound) {
     nbtCompound.putString("property", property.getName());
@@ -24,6 +24,11 @@ public record RandomPropertyNameFunction(String propertyName, boolean must) impl
     return getModifiedStateForProperty(blockState, property);
   }
 
+  @Override
+  public boolean isDeterministic() {
+    return false;
+  }
+
   private <T extends Comparable<T>> BlockState getModifiedStateForProperty(BlockState blockState, Property<T> property) {
     final List<T> values = List.copyOf(property.getValues());
     return blockState.with(property, values.get(RandomUtils.nextInt(0, values.size())));
@@ -1,5 +1,6 @@
 package pers.solid.ecmd.mixin;
 
+import com.llamalad7.mixinextras.injector.ModifyExpressionValue;
 import com.llamalad7.mixinextras.sugar.Local;
 import com.llamalad7.mixinextras.sugar.ref.LocalRef;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
@@ -11,13 +12,16 @@ import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Vec3d;
 import org.jetbrains.annotations.Nullable;
+import org.spongepowered.asm.mixin.Final;
 import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
 import org.spongepowered.asm.mixin.Unique;
 import org.spongepowered.asm.mixin.injection.At;
 import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 import pers.solid.ecmd.predicate.entity.EntitySelectorExtras;
+import pers.solid.ecmd.predicate.entity.EntitySelectors;
 import pers.solid.ecmd.util.mixin.EntitySelectorExtension;
 
 import java.util.List;
@@ -30,6 +34,12 @@ import java.util.function.Predicate;
 public class EntitySelectorMixin implements EntitySelectorExtension {
   @Unique
   private final EntitySelectorExtras ec$ext = new EntitySelectorExtras();
+  @Shadow
+  @Final
+  private int limit;
+  @Shadow
+  @Final
+  private BiConsumer<Vec3d, List<? extends Entity>> sorter;
 
   @Override
   public EntitySelectorExtras ec$getExt() {
@@ -41,6 +51,36 @@ public class EntitySelectorMixin implements EntitySelectorExtension {
     basePredicateRef.set(basePredicateRef.get().and(this.ec$ext::testForExtraPredicates));
   }
 
+  /**
+   * 将 {@link EntitySelectorExtras#actualBox}（例如 {@code region} 选项的区域的范围）与原版的范围取交集，从而只查找与这个范围相交的实体区段中的实体，而不是世界中的所有实体。原版的范围是相对于 {@code pos} 的，因此需要先转换为绝对坐标。
+   */
+  @ModifyExpressionValue(method = "appendEntitiesFromWorld", at = @At(value = "FIELD", target = "Lnet/minecraft/command/EntitySelector;box:Lnet/minecraft/util/math/Box;"))
+  private @Nullable Box restrictBox(@Nullable Box box, @Local(argsOnly = true) Vec3d pos) {
+    final Box extraBox = ec$ext.actualBox;
+    if (extraBox == null) {
+      return box;
+    } else if (box == null) {
+      return extraBox.offset(pos.negate());
+    }
+    final Box absoluteBox = box.offset(pos);
+    return absoluteBox.intersects(extraBox) ? absoluteBox.intersection(extraBox).offset(pos.negate()) : box;
+  }
+
+  /**
+   * 实体的数量超过 {@code limit} 时，只选择出排在前面的实体，而不是对所有实体进行排序后再截取。
+   *
+   * @see EntitySelectors#selectSorted(BiConsumer, Vec3d, List, int)
+   */
+  @Inject(method = "getEntities(Lnet/minecraft/util/math/Vec3d;Ljava/util/List;)Ljava/util/List;", at = @At("HEAD"), cancellable = true)
+  private <T extends Entity> void selectSortedWithLimit(Vec3d pos, List<T> entities, CallbackInfoReturnable<List<T>> cir) {
+    if (limit < entities.size()) {
+      final List<T> selected = EntitySelectors.selectSorted(sorter, pos, entities, limit);
+      if (selected != null) {
+        cir.setReturnValue(selected);
+      }
+    }
+  }
+
   @Inject(method = {"getEntity", "getUnfilteredEntities", "getPlayer", "getPlayers"}, at = @At("HEAD"))
   private void setSource(ServerCommandSource source, CallbackInfoReturnable<Entity> cir) throws CommandSyntaxException {
     ec$ext.updateSource(source);
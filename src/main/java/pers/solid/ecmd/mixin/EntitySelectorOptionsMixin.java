@@ -397,9 +397,12 @@ public abstract class EntitySelectorOptionsMixin {
     EntitySelectorReaderExtras.getOf(reader).addDescription(source -> new TagEntityPredicateEntry(tagName, hasNegation));
   }
 
-  @Inject(method = "method_9966", at = @At(value = "INVOKE", target = "Lnet/minecraft/command/EntitySelectorReader;setPredicate(Ljava/util/function/Predicate;)V"), locals = LocalCapture.CAPTURE_FAILSOFT)
-  private static void addNbtInformation(EntitySelectorReader reader, CallbackInfo ci, boolean hasNegation, NbtCompound nbtCompound) {
-    EntitySelectorReaderExtras.getOf(reader).addDescription(source -> new NbtMatchingEntityPredicateEntry(nbtCompound, hasNegation));
+  /**
+   * 使用 {@link NbtMatchingEntityPredicateEntry} 代替原版的谓词，只获取实体的 NBT 中需要比较的键，而不是每次都序列化整个实体。此谓词的开销较大，因此会在其他开销较小的谓词之后进行判断。
+   */
+  @WrapOperation(method = "method_9966", at = @At(value = "INVOKE", target = "Lnet/minecraft/command/EntitySelectorReader;setPredicate(Ljava/util/function/Predicate;)V"))
+  private static void addNbtInformation(EntitySelectorReader reader, Predicate<Entity> predicate, Operation<Void> original, @Local boolean hasNegation, @Local NbtCompound nbtCompound) {
+    EntitySelectorReaderExtras.getOf(reader).addPredicateAndDescription(new NbtMatchingEntityPredicateEntry(nbtCompound, hasNegation));
   }
 
   /**
@@ -578,10 +581,12 @@ public abstract class EntitySelectorOptionsMixin {
     advancements.get().put(advancementId, Either.right(expectedValue));
   }
 
-  @Inject(method = "method_9974", at = @At(value = "INVOKE", target = "Lnet/minecraft/command/EntitySelectorReader;setPredicate(Ljava/util/function/Predicate;)V"))
-  private static void addAdvancementInformation(EntitySelectorReader reader, CallbackInfo ci, @Share("advancements") LocalRef<Map<Identifier, Either<Object2BooleanMap<String>, Boolean>>> advancements) {
-    final Map<Identifier, Either<Object2BooleanMap<String>, Boolean>> build = advancements.get();
-    EntitySelectorReaderExtras.getOf(reader).addDescription(source -> new AdvancementEntityPredicateEntry(build));
+  /**
+   * 使用 {@link AdvancementEntityPredicateEntry} 代替原版的谓词，从而按照开销在其他谓词之后进行判断。
+   */
+  @WrapOperation(method = "method_9974", at = @At(value = "INVOKE", target = "Lnet/minecraft/command/EntitySelectorReader;setPredicate(Ljava/util/function/Predicate;)V"))
+  private static void addAdvancementInformation(EntitySelectorReader reader, Predicate<Entity> predicate, Operation<Void> original, @Share("advancements") LocalRef<Map<Identifier, Either<Object2BooleanMap<String>, Boolean>>> advancements) {
+    EntitySelectorReaderExtras.getOf(reader).addPredicateAndDescription(new AdvancementEntityPredicateEntry(advancements.get()));
   }
 
   @WrapOperation(method = "method_22824", at = @At(value = "INVOKE", target = "Lnet/minecraft/util/Identifier;fromCommandInput(Lcom/mojang/brigadier/StringReader;)Lnet/minecraft/util/Identifier;"))
@@ -611,6 +616,14 @@ public abstract class EntitySelectorOptionsMixin {
     if (cancel) ci.cancel();
   }
 
+  /**
+   * 使用 {@link LootTablePredicateEntityPredicateEntry} 代替原版的谓词，从而按照开销在其他谓词之后进行判断。其描述会在 {@link #addPredicateInformation} 中添加。
+   */
+  @WrapOperation(method = "method_22824", at = @At(value = "INVOKE", target = "Lnet/minecraft/command/EntitySelectorReader;setPredicate(Ljava/util/function/Predicate;)V"))
+  private static void replacePredicatePredicate(EntitySelectorReader reader, Predicate<Entity> predicate, Operation<Void> original, @Local boolean hasNegation, @Local Identifier identifier) {
+    EntitySelectorReaderExtras.getOf(reader).addConstantPredicate(new LootTablePredicateEntityPredicateEntry(identifier, hasNegation));
+  }
+
   @Inject(method = "method_22824", at = @At(value = "INVOKE", target = "Lnet/minecraft/command/EntitySelectorReader;setPredicate(Ljava/util/function/Predicate;)V"), locals = LocalCapture.CAPTURE_FAILSOFT)
   private static void addPredicateInformation(EntitySelectorReader reader, CallbackInfo ci, boolean bl, Identifier identifier) throws CommandSyntaxException {
     EntitySelectorReaderExtras.getOf(reader).addDescription(source -> new LootTablePredicateEntityPredicateEntry(identifier, bl));
@@ -96,8 +96,11 @@ public abstract class EntitySelectorReaderMixin implements EntitySelectorReaderE
   private void buildExtraPredicate(CallbackInfoReturnable<EntitySelector> cir) {
     final EntitySelector returnValue = cir.getReturnValue();
     final EntitySelectorExtras extras = ((EntitySelectorExtension) returnValue).ec$getExt();
+    extras.constantPredicates = ec$ext.constantPredicates;
     extras.predicateFunctions = ec$ext.predicateFunctions;
+    extras.materializesEntities = ec$ext.materializesEntities;
     extras.predicateDescriptions = ec$ext.predicateDescriptions;
+    extras.boxFunctions = ec$ext.boxFunctions;
   }
 
   /**
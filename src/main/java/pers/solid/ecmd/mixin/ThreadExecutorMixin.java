@@ -4,6 +4,7 @@ import net.minecraft.util.thread.ThreadExecutor;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 import pers.solid.ecmd.extensions.IteratorTask;
+import pers.solid.ecmd.extensions.TaskTickStatistics;
 import pers.solid.ecmd.extensions.ThreadExecutorExtension;
 
 import java.lang.ref.WeakReference;
@@ -19,12 +20,8 @@ public class ThreadExecutorMixin implements ThreadExecutorExtension {
   private final Queue<IteratorTask<?>> iteratorTasks = new ConcurrentLinkedQueue<>();
   @Unique
   private final Map<UUID, WeakReference<IteratorTask<?>>> uuidToTask = new HashMap<>();
-
-  @Override
-  public void ec_addIteratorTask(IteratorTask<?> task) {
-    iteratorTasks.add(task);
-    uuidToTask.put(task.uuid, new WeakReference<>(task));
-  }
+  @Unique
+  private final TaskTickStatistics taskTickStatistics = new TaskTickStatistics();
 
   @Override
   public Queue<IteratorTask<?>> ec_getIteratorTasks() {
@@ -35,4 +32,9 @@ public class ThreadExecutorMixin implements ThreadExecutorExtension {
   public Map<UUID, WeakReference<IteratorTask<?>>> ec_getUUIDToIteratorTasks() {
     return uuidToTask;
   }
+
+  @Override
+  public TaskTickStatistics ec_getTaskTickStatistics() {
+    return taskTickStatistics;
+  }
 }
@@ -6,6 +6,7 @@ import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.math.NbtConcentrationType;
 import pers.solid.ecmd.region.Region;
@@ -18,7 +19,8 @@ public record BlocksNbtDataArgument(RegionArgument regionArgument, NbtConcentrat
   public BlocksNbtData getBlockNbtData(ServerCommandSource source) throws CommandSyntaxException {
     final Region region = regionArgument.toAbsoluteRegion(source);
     final ServerWorld world = source.getWorld();
-    final ImmutableList<BlockEntity> blockEntities = region.stream().map(world::getBlockEntity).filter(Objects::nonNull).collect(ImmutableList.toImmutableList());
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    final ImmutableList<BlockEntity> blockEntities = region.longStream().mapToObj(pos -> world.getBlockEntity(mutable.set(pos))).filter(Objects::nonNull).collect(ImmutableList.toImmutableList());
     return new BlocksNbtData(blockEntities, nbtConcentrationType, source.getWorld().getRandom());
   }
 
@@ -10,6 +10,7 @@ import net.minecraft.predicate.NbtPredicate;
 import net.minecraft.text.Text;
 import net.minecraft.util.math.random.Random;
 import org.apache.commons.lang3.function.FailableFunction;
+import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.math.NbtConcentrationType;
 import pers.solid.ecmd.util.TextUtil;
 
@@ -20,7 +21,12 @@ import java.util.function.Function;
 public record EntitiesNbtData(Collection<? extends Entity> entities, NbtConcentrationType nbtConcentrationType, Random random) implements NbtSource, NbtTarget {
   @Override
   public <T> Collection<T> getNbts(Function<NbtCompound, T> mappingFunction) throws CommandSyntaxException {
-    return entities.stream().map(NbtPredicate::entityToNbt).map(mappingFunction).collect(ImmutableList.toImmutableList());
+    return getNbts(mappingFunction, null);
+  }
+
+  @Override
+  public <T> Collection<T> getNbts(Function<NbtCompound, T> mappingFunction, @Nullable Collection<String> keys) throws CommandSyntaxException {
+    return entities.stream().map(entity -> EntityNbtExtractor.extract(entity, keys)).map(mappingFunction).collect(ImmutableList.toImmutableList());
   }
 
   @Override
@@ -0,0 +1,155 @@
+package pers.solid.ecmd.nbt;
+
+import com.mojang.brigadier.StringReader;
+import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.command.argument.NbtPathArgumentType;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.LivingEntity;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.*;
+import net.minecraft.predicate.NbtPredicate;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.util.math.Vec3d;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 只获取实体的 NBT 中的部分键的值，而不是通过 {@link Entity#writeNbt(NbtCompound)} 序列化整个实体（对于玩家，这包括整个物品栏和末影箱）。对于常用的键，例如 {@code Health}、{@code Tags}、{@code Pos}、{@code Inventory}，可以直接从实体的字段得到其值，与 {@link NbtPredicate#entityToNbt(Entity)} 的结果中对应的键的值相同。
+ * <p>
+ * 只要有一个需要的键没有对应的提取方式，或者实体不是提取方式所要求的类型（例如 {@code Health} 只适用于生物，而掉落物也有名为 {@code Health} 的键），就会退回到序列化整个实体。
+ */
+public final class EntityNbtExtractor {
+  private static final Map<String, FieldExtractor<?>> FIELD_EXTRACTORS = new HashMap<>();
+
+  static {
+    registerField("Pos", Entity.class, entity -> {
+      // 与 Entity#writeNbt 相同，乘坐其他实体时，水平坐标为所乘坐的实体的坐标
+      final Entity vehicle = entity.getVehicle();
+      return vehicle != null ? doubleList(vehicle.getX(), entity.getY(), vehicle.getZ()) : doubleList(entity.getX(), entity.getY(), entity.getZ());
+    });
+    registerField("Motion", Entity.class, entity -> {
+      final Vec3d velocity = entity.getVelocity();
+      return doubleList(velocity.x, velocity.y, velocity.z);
+    });
+    registerField("Rotation", Entity.class, entity -> {
+      final NbtList list = new NbtList();
+      list.add(NbtFloat.of(entity.getYaw()));
+      list.add(NbtFloat.of(entity.getPitch()));
+      return list;
+    });
+    registerField("OnGround", Entity.class, entity -> NbtByte.of(entity.isOnGround()));
+    registerField("Fire", Entity.class, entity -> NbtShort.of((short) entity.getFireTicks()));
+    registerField("Air", Entity.class, entity -> NbtShort.of((short) entity.getAir()));
+    registerField("UUID", Entity.class, entity -> NbtHelper.fromUuid(entity.getUuid()));
+    registerField("Tags", Entity.class, entity -> {
+      // 没有标签时，原版不会写入此键
+      if (entity.getCommandTags().isEmpty()) return null;
+      final NbtList list = new NbtList();
+      for (String tag : entity.getCommandTags()) {
+        list.add(NbtString.of(tag));
+      }
+      return list;
+    });
+    registerField("Health", LivingEntity.class, entity -> NbtFloat.of(entity.getHealth()));
+    registerField("Inventory", PlayerEntity.class, player -> player.getInventory().writeNbt(new NbtList()));
+    registerField("SelectedItemSlot", PlayerEntity.class, player -> NbtInt.of(player.getInventory().selectedSlot));
+    registerField("XpLevel", PlayerEntity.class, player -> NbtInt.of(player.experienceLevel));
+    registerField("SelectedItem", ServerPlayerEntity.class, player -> {
+      // 与 NbtPredicate#entityToNbt 相同
+      final ItemStack itemStack = player.getInventory().getMainHandStack();
+      return itemStack.isEmpty() ? null : itemStack.writeNbt(new NbtCompound());
+    });
+  }
+
+  private EntityNbtExtractor() {
+  }
+
+  /**
+   * 注册一个键的提取方式。对于不是 {@code entityClass} 的实例的实体，会退回到序列化整个实体。
+   *
+   * @param function 从实体得到这个键的值，返回 {@code null} 表示实体的 NBT 中不会有这个键。
+   */
+  public static <E extends Entity> void registerField(String key, Class<E> entityClass, Function<E, @Nullable NbtElement> function) {
+    FIELD_EXTRACTORS.put(key, new FieldExtractor<>(entityClass, function));
+  }
+
+  /**
+   * 获取实体的 NBT，只保证其中包含 {@code keys} 中的键（如果实体的完整 NBT 中有这个键），可能包含也可能不包含其他的键。
+   *
+   * @param keys 需要的顶层的键，为 {@code null} 表示需要所有的键。
+   */
+  public static @NotNull NbtCompound extract(@NotNull Entity entity, @Nullable Collection<String> keys) {
+    if (keys == null) {
+      return NbtPredicate.entityToNbt(entity);
+    }
+    final NbtCompound result = new NbtCompound();
+    for (String key : keys) {
+      final FieldExtractor<?> extractor = FIELD_EXTRACTORS.get(key);
+      if (extractor == null || !extractor.entityClass.isInstance(entity)) {
+        return NbtPredicate.entityToNbt(entity);
+      }
+      final NbtElement value = extractor.extract(entity);
+      if (value != null) {
+        result.put(key, value);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 判断是否所有的键都有对应的提取方式，即 {@link #extract(Entity, Collection)} 是否可能无需序列化整个实体。
+   */
+  public static boolean canExtract(@NotNull Collection<String> keys) {
+    return FIELD_EXTRACTORS.keySet().containsAll(keys);
+  }
+
+  /**
+   * 获取 NBT 路径所访问的顶层的键。如果路径不是以一个键开始的（例如 {@code {...}} 或 {@code [...]}），则返回 {@code null}，表示需要所有的键。
+   */
+  public static @Nullable Set<String> keysOf(@NotNull NbtPathArgumentType.NbtPath path) {
+    final StringReader reader = new StringReader(path.toString());
+    if (!reader.canRead()) {
+      return null;
+    }
+    if (StringReader.isQuotedStringStart(reader.peek())) {
+      try {
+        return Set.of(reader.readQuotedString());
+      } catch (CommandSyntaxException e) {
+        return null;
+      }
+    }
+    final int start = reader.getCursor();
+    while (reader.canRead() && isNameCharacter(reader.peek())) {
+      reader.skip();
+    }
+    return reader.getCursor() == start ? null : Set.of(reader.getString().substring(start, reader.getCursor()));
+  }
+
+  /**
+   * 与 {@link NbtPathArgumentType} 中判断键名的字符的方式相同。
+   */
+  private static boolean isNameCharacter(char c) {
+    return c != ' ' && c != '"' && c != '[' && c != ']' && c != '.' && c != '{' && c != '}';
+  }
+
+  private static NbtList doubleList(double... values) {
+    final NbtList list = new NbtList();
+    for (double value : values) {
+      list.add(NbtDouble.of(value));
+    }
+    return list;
+  }
+
+  private record FieldExtractor<E extends Entity>(Class<E> entityClass, Function<E, @Nullable NbtElement> function) {
+    private @Nullable NbtElement extract(Entity entity) {
+      return function.apply(entityClass.cast(entity));
+    }
+  }
+}
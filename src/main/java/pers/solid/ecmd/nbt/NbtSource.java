@@ -6,6 +6,7 @@ import net.minecraft.command.argument.NbtPathArgumentType;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.text.Text;
+import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.math.NbtConcentrationType;
 
 import java.util.Collection;
@@ -20,6 +21,16 @@ public interface NbtSource {
 
   <T> Collection<T> getNbts(Function<NbtCompound, T> mappingFunction) throws CommandSyntaxException;
 
+  /**
+   * 与 {@link #getNbts(Function)} 类似，但是只需要保证 NBT 中包含 {@code keys} 中的顶层的键，从而避免序列化不需要的内容（例如实体的整个物品栏）。
+   *
+   * @param keys 需要的顶层的键，为 {@code null} 表示需要所有的键。
+   * @see EntityNbtExtractor
+   */
+  default <T> Collection<T> getNbts(Function<NbtCompound, T> mappingFunction, @Nullable Collection<String> keys) throws CommandSyntaxException {
+    return getNbts(mappingFunction);
+  }
+
   NbtElement concentrateNbts(Collection<? extends NbtElement> nbtElements) throws CommandSyntaxException;
 
   default NbtElement getConcentratedNbts(Function<NbtCompound, ? extends NbtElement> mappingFunction) throws CommandSyntaxException {
@@ -28,13 +39,13 @@ public interface NbtSource {
 
   default NbtElement getConcentratedNbts(NbtPathArgumentType.NbtPath path) throws CommandSyntaxException {
     try {
-      return getConcentratedNbts(element -> {
+      return concentrateNbts(getNbts(element -> {
         try {
           return Iterables.getOnlyElement(path.get(element));
         } catch (CommandSyntaxException e) {
           throw new RuntimeException(e);
         }
-      });
+      }, EntityNbtExtractor.keysOf(path)));
     } catch (NoSuchElementException | IllegalArgumentException e) {
       throw CommandSyntaxException.BUILT_IN_EXCEPTIONS.dispatcherParseException().create(e.getMessage());
     } catch (RuntimeException e) {
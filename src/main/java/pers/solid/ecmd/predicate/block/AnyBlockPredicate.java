@@ -3,6 +3,7 @@ package pers.solid.ecmd.predicate.block;
 import com.google.common.collect.Collections2;
 import com.google.common.collect.ImmutableList;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
@@ -11,6 +12,7 @@ import net.minecraft.nbt.NbtList;
 import net.minecraft.text.Text;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.command.TestResult;
 import pers.solid.ecmd.util.ExpressionConvertible;
@@ -20,6 +22,7 @@ import pers.solid.ecmd.util.iterator.IterateUtils;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 
 public record AnyBlockPredicate(Collection<BlockPredicate> blockPredicates) implements BlockPredicate {
   @Override
@@ -32,6 +35,24 @@ public record AnyBlockPredicate(Collection<BlockPredicate> blockPredicates) impl
     return blockPredicates.stream().anyMatch(blockPredicate -> blockPredicate.test(cachedBlockPosition));
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return blockPredicates.stream().allMatch(BlockPredicate::isThreadSafe);
+  }
+
+  @Override
+  public @Nullable Predicate<BlockState> asStatePredicate() {
+    Predicate<BlockState> result = blockState -> false;
+    for (BlockPredicate blockPredicate : blockPredicates) {
+      final Predicate<BlockState> statePredicate = blockPredicate.asStatePredicate();
+      if (statePredicate == null) {
+        return null;
+      }
+      result = result.or(statePredicate);
+    }
+    return result;
+  }
+
   @Override
   public TestResult testAndDescribe(CachedBlockPosition cachedBlockPosition) {
     final ImmutableList.Builder<TestResult> results = new ImmutableList.Builder<>();
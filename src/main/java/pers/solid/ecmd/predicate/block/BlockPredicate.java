@@ -3,6 +3,7 @@ package pers.solid.ecmd.predicate.block;
 import com.google.common.base.Preconditions;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
@@ -12,6 +13,7 @@ import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.command.TestResult;
 import pers.solid.ecmd.util.ExpressionConvertible;
@@ -47,6 +49,20 @@ public interface BlockPredicate extends Predicate<CachedBlockPosition>, Expressi
     return successOrFail(test, cachedBlockPosition.getBlockPos());
   }
 
+  /**
+   * 此谓词是否可以在服务器线程之外安全地测试。这样的谓词在测试时只能使用 {@link CachedBlockPosition#getBlockState()} 和 {@link CachedBlockPosition#getBlockPos()}，不能访问世界、方块实体或者其他可变的状态，因此可以根据区块段的快照并行地测试。
+   */
+  default boolean isThreadSafe() {
+    return false;
+  }
+
+  /**
+   * 如果此谓词的结果只取决于方块状态，则返回一个直接测试方块状态的谓词，否则返回 {@code null}。由于方块状态的数量是有限的，这样的谓词可以由 {@link CompiledBlockPredicate} 编译成查找表。
+   */
+  default @Nullable Predicate<BlockState> asStatePredicate() {
+    return null;
+  }
+
   @NotNull
   BlockPredicateType<?> getType();
 
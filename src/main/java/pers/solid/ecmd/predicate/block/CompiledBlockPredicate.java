@@ -0,0 +1,97 @@
+package pers.solid.ecmd.predicate.block;
+
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.pattern.CachedBlockPosition;
+import net.minecraft.nbt.NbtCompound;
+import org.jetbrains.annotations.NotNull;
+import pers.solid.ecmd.command.TestResult;
+
+import java.util.function.Predicate;
+
+/**
+ * 将只取决于方块状态的谓词编译成以 {@link Block#STATE_IDS} 中的数字 id 为索引的查找表。查找表是在测试时逐渐填充的，每个方块状态只会被原先的谓词测试一次，之后的测试只需要查找一次数组。
+ * <p>
+ * 查找表中的每一项都是单独的 {@code byte}，多个线程同时填充同一项时写入的值是相同的，因此可以在 {@link pers.solid.ecmd.block.ParallelPredicateTester} 中使用。此谓词的描述、类型和 NBT 都与原先的谓词相同。
+ */
+public final class CompiledBlockPredicate implements BlockPredicate {
+  private static final byte UNKNOWN = 0, FALSE = 1, TRUE = 2;
+  private final @NotNull BlockPredicate original;
+  private final @NotNull Predicate<BlockState> statePredicate;
+  private final byte[] table;
+
+  private CompiledBlockPredicate(@NotNull BlockPredicate original, @NotNull Predicate<BlockState> statePredicate) {
+    this.original = original;
+    this.statePredicate = statePredicate;
+    this.table = new byte[Block.STATE_IDS.size()];
+  }
+
+  /**
+   * 如果谓词只取决于方块状态，则返回编译后的谓词，否则直接返回原先的谓词。
+   */
+  public static BlockPredicate of(BlockPredicate blockPredicate) {
+    if (blockPredicate instanceof CompiledBlockPredicate) {
+      return blockPredicate;
+    }
+    final Predicate<BlockState> statePredicate = blockPredicate.asStatePredicate();
+    return statePredicate == null ? blockPredicate : new CompiledBlockPredicate(blockPredicate, statePredicate);
+  }
+
+  public @NotNull BlockPredicate getOriginal() {
+    return original;
+  }
+
+  @Override
+  public boolean test(CachedBlockPosition cachedBlockPosition) {
+    return testState(cachedBlockPosition.getBlockState());
+  }
+
+  public boolean testState(BlockState blockState) {
+    final int id = Block.getRawIdFromState(blockState);
+    if (id < 0 || id >= table.length) {
+      return statePredicate.test(blockState);
+    }
+    final byte cached = table[id];
+    if (cached != UNKNOWN) {
+      return cached == TRUE;
+    }
+    final boolean result = statePredicate.test(blockState);
+    table[id] = result ? TRUE : FALSE;
+    return result;
+  }
+
+  @Override
+  public TestResult testAndDescribe(CachedBlockPosition cachedBlockPosition) {
+    return original.testAndDescribe(cachedBlockPosition);
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return original.isThreadSafe();
+  }
+
+  @Override
+  public Predicate<BlockState> asStatePredicate() {
+    return this::testState;
+  }
+
+  @Override
+  public @NotNull BlockPredicateType<?> getType() {
+    return original.getType();
+  }
+
+  @Override
+  public @NotNull String asString() {
+    return original.asString();
+  }
+
+  @Override
+  public void writeNbt(@NotNull NbtCompound nbtCompound) {
+    original.writeNbt(nbtCompound);
+  }
+
+  @Override
+  public String toString() {
+    return "CompiledBlockPredicate[" + original + "]";
+  }
+}
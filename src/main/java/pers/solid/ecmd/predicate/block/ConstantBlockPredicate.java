@@ -1,5 +1,6 @@
 package pers.solid.ecmd.predicate.block;
 
+import net.minecraft.block.BlockState;
 import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
@@ -12,6 +13,8 @@ import pers.solid.ecmd.command.TestResult;
 import pers.solid.ecmd.util.Parser;
 import pers.solid.ecmd.util.ParsingUtil;
 
+import java.util.function.Predicate;
+
 public enum ConstantBlockPredicate implements BlockPredicate {
   ALWAYS_TRUE;
 
@@ -25,6 +28,16 @@ public enum ConstantBlockPredicate implements BlockPredicate {
     return true;
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public Predicate<BlockState> asStatePredicate() {
+    return blockState -> true;
+  }
+
   @Override
   public TestResult testAndDescribe(CachedBlockPosition cachedBlockPosition) {
     return TestResult.of(true, Text.translatable("enhanced_commands.block_predicate.constant.pass"));
@@ -1,6 +1,7 @@
 package pers.solid.ecmd.predicate.block;
 
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
@@ -15,6 +16,7 @@ import pers.solid.ecmd.util.FunctionParamsParser;
 import pers.solid.ecmd.util.ParsingUtil;
 import pers.solid.ecmd.util.Styles;
 
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public record IdContainBlockPredicate(@NotNull Pattern pattern) implements BlockPredicate {
@@ -25,7 +27,21 @@ public record IdContainBlockPredicate(@NotNull Pattern pattern) implements Block
 
   @Override
   public boolean test(CachedBlockPosition cachedBlockPosition) {
-    return pattern.matcher(Registries.BLOCK.getId(cachedBlockPosition.getBlockState().getBlock()).toString()).find();
+    return testState(cachedBlockPosition.getBlockState());
+  }
+
+  public boolean testState(BlockState blockState) {
+    return pattern.matcher(Registries.BLOCK.getId(blockState.getBlock()).toString()).find();
+  }
+
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public Predicate<BlockState> asStatePredicate() {
+    return this::testState;
   }
 
   @Override
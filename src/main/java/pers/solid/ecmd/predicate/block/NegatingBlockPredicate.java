@@ -1,6 +1,7 @@
 package pers.solid.ecmd.predicate.block;
 
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.pattern.CachedBlockPosition;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
@@ -14,6 +15,7 @@ import pers.solid.ecmd.util.Parser;
 import pers.solid.ecmd.util.ParsingUtil;
 
 import java.util.List;
+import java.util.function.Predicate;
 
 public record NegatingBlockPredicate(BlockPredicate blockPredicate) implements BlockPredicate {
   @Override
@@ -26,6 +28,17 @@ public record NegatingBlockPredicate(BlockPredicate blockPredicate) implements B
     return !blockPredicate.test(cachedBlockPosition);
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return blockPredicate.isThreadSafe();
+  }
+
+  @Override
+  public @Nullable Predicate<BlockState> asStatePredicate() {
+    final Predicate<BlockState> statePredicate = blockPredicate.asStatePredicate();
+    return statePredicate == null ? null : statePredicate.negate();
+  }
+
   @Override
   public TestResult testAndDescribe(CachedBlockPosition cachedBlockPosition) {
     final TestResult testResult = blockPredicate.testAndDescribe(cachedBlockPosition);
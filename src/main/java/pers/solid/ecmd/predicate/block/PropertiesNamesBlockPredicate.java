@@ -23,6 +23,7 @@ import pers.solid.ecmd.util.*;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -36,7 +37,10 @@ public record PropertiesNamesBlockPredicate(@NotNull Collection<PropertyNamePred
 
   @Override
   public boolean test(CachedBlockPosition cachedBlockPosition) {
-    final BlockState blockState = cachedBlockPosition.getBlockState();
+    return testState(cachedBlockPosition.getBlockState());
+  }
+
+  public boolean testState(BlockState blockState) {
     for (PropertyNamePredicate propertyNamePredicate : propertyNamePredicates) {
       if (!propertyNamePredicate.test(blockState))
         return false;
@@ -44,6 +48,16 @@ public record PropertiesNamesBlockPredicate(@NotNull Collection<PropertyNamePred
     return true;
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public Predicate<BlockState> asStatePredicate() {
+    return this::testState;
+  }
+
   @Override
   public TestResult testAndDescribe(CachedBlockPosition cachedBlockPosition) {
     final BlockState blockState = cachedBlockPosition.getBlockState();
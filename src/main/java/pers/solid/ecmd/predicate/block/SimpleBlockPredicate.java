@@ -28,6 +28,7 @@ import pers.solid.ecmd.util.TextUtil;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 
 public record SimpleBlockPredicate(Block block, Collection<PropertyPredicate<?>> propertyEntries) implements BlockPredicate {
   @Override
@@ -37,15 +38,29 @@ public record SimpleBlockPredicate(Block block, Collection<PropertyPredicate<?>>
 
   @Override
   public boolean test(CachedBlockPosition cachedBlockPosition) {
-    if (!cachedBlockPosition.getBlockState().isOf(block))
+    return testState(cachedBlockPosition.getBlockState());
+  }
+
+  public boolean testState(BlockState blockState) {
+    if (!blockState.isOf(block))
       return false;
     for (PropertyPredicate<?> propertyPredicate : propertyEntries) {
-      if (!propertyPredicate.test(cachedBlockPosition.getBlockState()))
+      if (!propertyPredicate.test(blockState))
         return false;
     }
     return true;
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public Predicate<BlockState> asStatePredicate() {
+    return this::testState;
+  }
+
   @Override
   public TestResult testAndDescribe(CachedBlockPosition cachedBlockPosition) {
     boolean matches = true;
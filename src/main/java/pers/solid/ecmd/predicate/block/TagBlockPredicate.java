@@ -27,6 +27,7 @@ import pers.solid.ecmd.util.*;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 /**
@@ -44,7 +45,10 @@ public record TagBlockPredicate(@NotNull TagKey<Block> blockTag, @NotNull @Unmod
 
   @Override
   public boolean test(CachedBlockPosition cachedBlockPosition) {
-    final BlockState blockState = cachedBlockPosition.getBlockState();
+    return testState(cachedBlockPosition.getBlockState());
+  }
+
+  public boolean testState(BlockState blockState) {
     final boolean inTag = blockState.isIn(blockTag);
     if (!inTag) {
       return false;
@@ -56,6 +60,16 @@ public record TagBlockPredicate(@NotNull TagKey<Block> blockTag, @NotNull @Unmod
     return true;
   }
 
+  @Override
+  public boolean isThreadSafe() {
+    return true;
+  }
+
+  @Override
+  public Predicate<BlockState> asStatePredicate() {
+    return this::testState;
+  }
+
   @Override
   public TestResult testAndDescribe(CachedBlockPosition cachedBlockPosition) {
     final BlockState blockState = cachedBlockPosition.getBlockState();
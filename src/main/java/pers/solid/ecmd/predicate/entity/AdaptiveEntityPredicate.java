@@ -0,0 +1,67 @@
+package pers.solid.ecmd.predicate.entity;
+
+import net.minecraft.entity.Entity;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * 依次判断多个谓词，并且根据实际判断时各谓词排除实体的比例调整判断的顺序。对于相互独立的谓词，按照“开销 ÷ 排除实体的概率”从小到大的顺序进行判断时，平均的开销最小，因此开销虽小但几乎不排除实体的谓词会被移到后面，开销虽大但能排除大多数实体的谓词会被移到前面。
+ * <p>
+ * 初始的顺序与各谓词的{@linkplain EntityPredicate#testCost() 开销}的顺序相同。每判断 {@link #REORDER_INTERVAL} 次后重新排序，并将统计数据减半，从而逐渐适应实体的变化。统计数据没有同步，只应在服务器线程中使用。
+ */
+final class AdaptiveEntityPredicate implements Predicate<Entity> {
+  static final int REORDER_INTERVAL = 256;
+  private final Predicate<Entity>[] predicates;
+  private final int[] costs;
+  /**
+   * 各谓词被判断的次数以及排除实体的次数，索引与 {@link #predicates} 的相同。
+   */
+  private final long[] evaluated, rejected;
+  /**
+   * 当前判断的顺序，为 {@link #predicates} 中的索引。
+   */
+  private Integer[] order;
+  private int testsUntilReorder = REORDER_INTERVAL;
+
+  @SuppressWarnings("unchecked")
+  AdaptiveEntityPredicate(List<? extends Predicate<Entity>> predicates, int[] costs) {
+    this.predicates = predicates.toArray(new Predicate[0]);
+    this.costs = costs;
+    this.evaluated = new long[costs.length];
+    this.rejected = new long[costs.length];
+    this.order = new Integer[costs.length];
+    Arrays.setAll(order, i -> i);
+  }
+
+  @Override
+  public boolean test(Entity entity) {
+    if (--testsUntilReorder <= 0) {
+      reorder();
+    }
+    for (int index : order) {
+      evaluated[index]++;
+      if (!predicates[index].test(entity)) {
+        rejected[index]++;
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void reorder() {
+    testsUntilReorder = REORDER_INTERVAL;
+    final double[] ranks = new double[costs.length];
+    for (int i = 0; i < costs.length; i++) {
+      // 加一平滑，从而让还没有被判断过的谓词按照其开销排序
+      ranks[i] = costs[i] * (evaluated[i] + 2.0) / (rejected[i] + 1.0);
+      evaluated[i] >>= 1;
+      rejected[i] >>= 1;
+    }
+    final Integer[] newOrder = order.clone();
+    Arrays.sort(newOrder, Comparator.comparingDouble(i -> ranks[i]));
+    order = newOrder;
+  }
+}
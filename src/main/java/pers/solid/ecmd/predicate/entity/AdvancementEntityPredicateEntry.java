@@ -22,6 +22,43 @@ import java.util.Map;
 import java.util.stream.Collectors;
 
 public record AdvancementEntityPredicateEntry(@NotNull Map<@NotNull Identifier, @NotNull Either<@NotNull Object2BooleanMap<@NotNull String>, @NotNull Boolean>> map) implements EntityPredicateEntry {
+  /**
+   * 与原版的 {@code advancements} 选项的谓词相同。
+   */
+  @Override
+  public boolean test(Entity entity) {
+    if (!(entity instanceof final ServerPlayerEntity player)) {
+      return false;
+    }
+    PlayerAdvancementTracker advancementTracker = player.getAdvancementTracker();
+    ServerAdvancementLoader advancementLoader = player.getServer().getAdvancementLoader();
+    for (final var entry : map.entrySet()) {
+      final Advancement advancement = advancementLoader.get(entry.getKey());
+      if (advancement == null) {
+        return false;
+      }
+      final AdvancementProgress progress = advancementTracker.getProgress(advancement);
+      final boolean matches = entry.getValue().map(expectedProgress -> {
+        for (var progressEntry : expectedProgress.object2BooleanEntrySet()) {
+          final CriterionProgress criterionProgress = progress.getCriterionProgress(progressEntry.getKey());
+          if (criterionProgress == null || criterionProgress.isObtained() != progressEntry.getBooleanValue()) {
+            return false;
+          }
+        }
+        return true;
+      }, expectedValue -> progress.isDone() == expectedValue);
+      if (!matches) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int testCost() {
+    return 2 * map.size();
+  }
+
   @Override
   public TestResult testAndDescribe(Entity entity, Text displayName) {
     if (!(entity instanceof final ServerPlayerEntity player)) {
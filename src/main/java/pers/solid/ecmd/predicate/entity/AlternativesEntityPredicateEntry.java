@@ -7,17 +7,67 @@ import net.minecraft.entity.Entity;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.text.Text;
 import pers.solid.ecmd.command.TestResult;
+import pers.solid.ecmd.util.iterator.IterateUtils;
 
 import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 实体是否符合多个实体选择器中的任意一个。各个实体选择器会在创建此对象时转换为 {@link SelectorEntityPredicate}，因此限制了数量的实体选择器只会选择一次实体，而不是每判断一个实体都重新选择一次。
+ */
+public final class AlternativesEntityPredicateEntry implements EntityPredicateEntry {
+  private final Collection<EntitySelector> entitySelectors;
+  private final ServerCommandSource serverCommandSource;
+  private final boolean inverted;
+  /**
+   * 由 {@link #entitySelectors} 转换而来，不参与 {@link #equals(Object)} 等方法。
+   */
+  private final List<SelectorEntityPredicate> selectorPredicates;
+
+  public AlternativesEntityPredicateEntry(Collection<EntitySelector> entitySelectors, ServerCommandSource serverCommandSource, boolean inverted) throws CommandSyntaxException {
+    this.entitySelectors = entitySelectors;
+    this.serverCommandSource = serverCommandSource;
+    this.inverted = inverted;
+    this.selectorPredicates = IterateUtils.transformFailableImmutableList(entitySelectors, entitySelector -> new SelectorEntityPredicate(entitySelector, serverCommandSource));
+  }
+
+  public Collection<EntitySelector> entitySelectors() {
+    return entitySelectors;
+  }
+
+  public ServerCommandSource serverCommandSource() {
+    return serverCommandSource;
+  }
+
+  public boolean inverted() {
+    return inverted;
+  }
+
+  @Override
+  public boolean test(Entity entity) {
+    for (SelectorEntityPredicate selectorPredicate : selectorPredicates) {
+      if (selectorPredicate.test(entity)) {
+        return !inverted;
+      }
+    }
+    return inverted;
+  }
+
+  /**
+   * 每个实体选择器都需要单独进行判断，且其中可能还有其他开销较大的谓词。
+   */
+  @Override
+  public int testCost() {
+    return 8 * entitySelectors.size();
+  }
 
-public record AlternativesEntityPredicateEntry(Collection<EntitySelector> entitySelectors, ServerCommandSource serverCommandSource, boolean inverted) implements EntityPredicateEntry {
   @Override
   public TestResult testAndDescribe(Entity entity, Text displayName) throws CommandSyntaxException {
     boolean result = false;
     final ImmutableList.Builder<TestResult> attachments = new ImmutableList.Builder<>();
-    for (EntitySelector entitySelector : entitySelectors) {
-      final SelectorEntityPredicate selectorEntityPredicate = new SelectorEntityPredicate(entitySelector, serverCommandSource);
-      final TestResult oneResult = selectorEntityPredicate.testAndDescribe(entity);
+    for (SelectorEntityPredicate selectorPredicate : selectorPredicates) {
+      final TestResult oneResult = selectorPredicate.testAndDescribe(entity);
       attachments.add(oneResult);
       result |= oneResult.successes();
     }
@@ -40,4 +90,21 @@ public record AlternativesEntityPredicateEntry(Collection<EntitySelector> entity
   public String toOptionEntry() {
     return "alternatives=" + (inverted ? "!" : "") + "[...]";
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof AlternativesEntityPredicateEntry that)) return false;
+    return inverted == that.inverted && entitySelectors.equals(that.entitySelectors) && serverCommandSource.equals(that.serverCommandSource);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(entitySelectors, serverCommandSource, inverted);
+  }
+
+  @Override
+  public String toString() {
+    return "AlternativesEntityPredicateEntry[entitySelectors=" + entitySelectors + ", serverCommandSource=" + serverCommandSource + ", inverted=" + inverted + "]";
+  }
 }
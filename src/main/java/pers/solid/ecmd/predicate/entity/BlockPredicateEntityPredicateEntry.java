@@ -16,6 +16,11 @@ public record BlockPredicateEntityPredicateEntry(BlockPredicate blockPredicate)
     return blockPredicate.test(new CachedBlockPosition(entity.getWorld(), entity.getBlockPos(), false));
   }
 
+  @Override
+  public int testCost() {
+    return 4;
+  }
+
   @Override
   public TestResult testAndDescribe(Entity entity, Text displayName) throws CommandSyntaxException {
     final TestResult testResult = blockPredicate.testAndDescribe(new CachedBlockPosition(entity.getWorld(), entity.getBlockPos(), false));
@@ -26,6 +26,11 @@ public record BlockPredicatesEntityPredicateEntry(Map<PosArgument, BlockPredicat
     return true;
   }
 
+  @Override
+  public int testCost() {
+    return 4 * map.size();
+  }
+
   @Override
   public TestResult testAndDescribe(Entity entity, Text displayName) throws CommandSyntaxException {
     final List<TestResult> attachments = new ArrayList<>();
@@ -31,6 +31,30 @@ public interface EntityPredicate extends Predicate<Entity> {
   @Override
   boolean test(Entity entity);
 
+  /**
+   * 对实体进行一次 {@link #test(Entity)} 的开销的估计值，类似于 {@link pers.solid.ecmd.region.Region#containsCost()}。只读取实体的字段的谓词的开销为 1，需要查找其他对象（例如记分板、进度、方块）的谓词的开销更大，需要序列化实体或者评估战利品表谓词的开销最大。实体选择器会按照开销从小到大的顺序依次进行判断。
+   */
+  default int testCost() {
+    return 1;
+  }
+
+  /**
+   * 为普通的谓词指定{@linkplain #testCost() 开销的估计值}。
+   */
+  static EntityPredicate of(Predicate<Entity> predicate, int testCost) {
+    return new EntityPredicate() {
+      @Override
+      public boolean test(Entity entity) {
+        return predicate.test(entity);
+      }
+
+      @Override
+      public int testCost() {
+        return testCost;
+      }
+    };
+  }
+
   static TestResult successResult(Entity entity) {
     return TestResult.of(true, Text.translatable("enhanced_commands.entity_predicate.pass", TextUtil.styled(entity.getDisplayName(), Styles.TARGET)));
   }
@@ -1,45 +1,132 @@
 package pers.solid.ecmd.predicate.entity;
 
 import com.google.common.base.Predicates;
+import com.google.common.collect.Lists;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.command.EntitySelector;
+import net.minecraft.command.argument.EntityAnchorArgumentType;
 import net.minecraft.entity.Entity;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Box;
+import net.minecraft.util.math.Vec2f;
+import net.minecraft.util.math.Vec3d;
 import org.apache.commons.lang3.function.FailableFunction;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import pers.solid.ecmd.EnhancedCommands;
+import pers.solid.ecmd.configs.EntitySelectorParsingConfig;
 import pers.solid.ecmd.util.iterator.IterateUtils;
 import pers.solid.ecmd.util.mixin.EntitySelectorExtension;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.Predicate;
 
 public class EntitySelectorExtras {
   public static final Logger LOGGER = LoggerFactory.getLogger(EntitySelectorExtras.class);
+  /**
+   * 编译后的谓词和范围的缓存中最多的命令源的数量。
+   */
+  public static final int CACHE_SIZE = 16;
   public ServerCommandSource source;
+  /**
+   * 不依赖命令源的谓词，只需要创建一次。
+   */
+  public @Nullable List<Predicate<Entity>> constantPredicates = null;
   public @Nullable List<FailableFunction<ServerCommandSource, Predicate<Entity>, CommandSyntaxException>> predicateFunctions = null;
   public @Nullable List<FailableFunction<ServerCommandSource, EntityPredicateEntry, CommandSyntaxException>> predicateDescriptions = null;
+  public @Nullable List<FailableFunction<ServerCommandSource, @Nullable Box, CommandSyntaxException>> boxFunctions = null;
+  /**
+   * 根据命令源计算出的实体所在的范围（绝对坐标），为 {@code null} 表示没有限制。查找实体时，此范围会与原版的范围取交集，因此只需要查找与之相交的实体区段。
+   *
+   * @see pers.solid.ecmd.mixin.EntitySelectorMixin
+   */
+  public @Nullable Box actualBox = null;
+  /**
+   * 如果为 {@code true}，则编译出的谓词包含在编译时选择出的实体（例如 {@code alternatives} 中限制了数量的实体选择器），因此只能在同一刻中重复使用。
+   */
+  public boolean materializesEntities = false;
+  /**
+   * 以命令源中会影响谓词和范围的部分为键的、最近使用的编译后的谓词和范围。同一个实体选择器对象会被命令方块或者函数的每一次执行共用，例如 {@code execute as @a at @s run ...} 中的实体选择器会依次使用各个命令源。
+   */
+  private final Map<SourceKey, Compiled> compiledCache = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<SourceKey, Compiled> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+  private @Nullable SourceKey sourceKey = null;
   public Predicate<Entity> actualExtraPredicate = entity -> {
     EnhancedCommands.LOGGER.warn("Warning! There is no ServerCommandSource yet for {}!", EntitySelectorExtras.this);
     return false;
   };
 
+  /**
+   * 根据命令源计算出各个谓词，并按照其{@linkplain EntityPredicate#testCost() 开销}从小到大的顺序进行排序，开销相同时，不依赖命令源的谓词在前，其余的谓词保持其在选择器中的顺序。如果启用了 {@link EntitySelectorParsingConfig#adaptivePredicateOrder}，还会根据实际判断时各谓词排除实体的比例调整顺序。
+   */
   public Predicate<Entity> createUpdatedPredicate(ServerCommandSource source) throws CommandSyntaxException {
-    // 这个 transform 过的 iterable 会被复制一遍。
-    return predicateFunctions == null ? Predicates.alwaysTrue() : Predicates.and(IterateUtils.transformFailableImmutableList(predicateFunctions, predicateFunction -> predicateFunction.apply(source)::test));
+    if (predicateFunctions == null && constantPredicates == null) {
+      return Predicates.alwaysTrue();
+    }
+    final List<Predicate<Entity>> predicates = new ArrayList<>();
+    if (constantPredicates != null) {
+      predicates.addAll(constantPredicates);
+    }
+    if (predicateFunctions != null) {
+      predicates.addAll(IterateUtils.transformFailableImmutableList(predicateFunctions, predicateFunction -> predicateFunction.apply(source)));
+    }
+    predicates.sort(Comparator.comparingInt(EntitySelectorExtras::testCostOf));
+    if (predicates.size() > 1 && EntitySelectorParsingConfig.CURRENT.adaptivePredicateOrder) {
+      return new AdaptiveEntityPredicate(predicates, predicates.stream().mapToInt(EntitySelectorExtras::testCostOf).toArray());
+    }
+    final List<com.google.common.base.Predicate<Entity>> sortedPredicates = Lists.transform(predicates, predicate -> predicate::test);
+    return Predicates.and(sortedPredicates);
   }
 
-  public void updateSource(@NotNull ServerCommandSource source) throws CommandSyntaxException {
-    if (!source.equals(this.source)) {
-      if (this.source != null) {
-        LOGGER.warn("Changing source for a same entity selector object ({}) from {} to {}!", this, this.source, source);
+  private static int testCostOf(Predicate<Entity> predicate) {
+    return predicate instanceof EntityPredicate entityPredicate ? entityPredicate.testCost() : 1;
+  }
+
+  /**
+   * 计算各个范围的交集。如果范围之间不相交，那么不会有任何实体符合条件，此时返回的范围虽然不准确，但仍然会由谓词排除所有实体。
+   */
+  public @Nullable Box createUpdatedBox(ServerCommandSource source) throws CommandSyntaxException {
+    if (boxFunctions == null) {
+      return null;
+    }
+    Box result = null;
+    for (var boxFunction : boxFunctions) {
+      final Box box = boxFunction.apply(source);
+      if (box != null) {
+        result = result == null ? box : result.intersection(box);
       }
-      this.source = source;
-      actualExtraPredicate = createUpdatedPredicate(source);
     }
+    return result;
+  }
+
+  /**
+   * 根据命令源更新 {@link #actualExtraPredicate} 和 {@link #actualBox}。只有命令源的位置、世界、实体、朝向和锚点会影响编译的结果，因此这些部分相同的命令源会共用缓存中的结果；如果没有依赖命令源的谓词和范围，那么只会编译一次。
+   */
+  public void updateSource(@NotNull ServerCommandSource source) throws CommandSyntaxException {
+    this.source = source;
+    final SourceKey key = predicateFunctions == null && boxFunctions == null ? SourceKey.INDEPENDENT : SourceKey.of(source, materializesEntities);
+    if (key.equals(sourceKey)) {
+      return;
+    }
+    Compiled compiled = compiledCache.get(key);
+    if (compiled == null) {
+      compiled = new Compiled(createUpdatedPredicate(source), createUpdatedBox(source));
+      compiledCache.put(key, compiled);
+    }
+    sourceKey = key;
+    actualExtraPredicate = compiled.predicate();
+    actualBox = compiled.box();
   }
 
   public static EntitySelectorExtras getOf(EntitySelector entitySelector) {
@@ -49,4 +136,22 @@ public class EntitySelectorExtras {
   public boolean testForExtraPredicates(Entity entity) {
     return actualExtraPredicate.test(entity);
   }
+
+  /**
+   * 命令源中会影响编译的结果的部分。{@code tick} 只在{@linkplain #materializesEntities 编译时会选择实体}时使用，其他情况下为 0。
+   */
+  private record SourceKey(@Nullable ServerWorld world, @Nullable Vec3d position, float pitch, float yaw, @Nullable Entity entity, @Nullable EntityAnchorArgumentType.EntityAnchor entityAnchor, int tick) {
+    /**
+     * 没有依赖命令源的谓词和范围时使用的键。
+     */
+    private static final SourceKey INDEPENDENT = new SourceKey(null, null, 0, 0, null, null, 0);
+
+    private static SourceKey of(ServerCommandSource source, boolean includesTick) {
+      final Vec2f rotation = source.getRotation();
+      return new SourceKey(source.getWorld(), source.getPosition(), rotation.x, rotation.y, source.getEntity(), source.getEntityAnchor(), includesTick ? source.getServer().getTicks() : 0);
+    }
+  }
+
+  private record Compiled(Predicate<Entity> predicate, @Nullable Box box) {
+  }
 }
@@ -28,9 +28,6 @@ import net.minecraft.entity.effect.StatusEffect;
 import net.minecraft.loot.LootGsons;
 import net.minecraft.loot.condition.LootCondition;
 import net.minecraft.loot.condition.LootConditionManager;
-import net.minecraft.loot.context.LootContext;
-import net.minecraft.loot.context.LootContextParameters;
-import net.minecraft.loot.context.LootContextTypes;
 import net.minecraft.predicate.NumberRange;
 import net.minecraft.predicate.entity.EntityEffectPredicate;
 import net.minecraft.registry.Registries;
@@ -43,9 +40,9 @@ import net.minecraft.scoreboard.ScoreboardPlayerScore;
 import net.minecraft.scoreboard.ServerScoreboard;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.server.network.ServerPlayerEntity;
-import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.Box;
 import net.minecraft.world.GameMode;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.ApiStatus;
@@ -58,6 +55,7 @@ import pers.solid.ecmd.mixin.EntitySelectorOptionsMixin;
 import pers.solid.ecmd.mixin.EntitySelectorReaderAccessor;
 import pers.solid.ecmd.predicate.block.BlockPredicate;
 import pers.solid.ecmd.predicate.block.BlockPredicateArgument;
+import pers.solid.ecmd.predicate.block.CompiledBlockPredicate;
 import pers.solid.ecmd.region.Region;
 import pers.solid.ecmd.region.RegionArgument;
 import pers.solid.ecmd.util.ModCommandExceptionTypes;
@@ -254,7 +252,12 @@ public class EntitySelectorOptionsExtension {
       EntitySelectorReaderExtras.getOf(reader).addFunction(source -> {
         final Region region;
         region = regionArgument.toAbsoluteRegion(source);
-        return entity -> region.contains(entity.getPos());
+        return EntityPredicate.of(entity -> region.contains(entity.getPos()), region.containsCost());
+      });
+      EntitySelectorReaderExtras.getOf(reader).addBoxFunction(source -> {
+        final Box box = regionArgument.toAbsoluteRegion(source).minContainingBox();
+        // 实体的坐标可能恰好在范围的边界上，而查找实体时判断的是碰撞箱与范围是否严格相交，因此需要稍微扩大范围
+        return box == null ? null : box.expand(1.0E-7);
       });
     }, Predicates.alwaysTrue(), Text.translatable("enhanced_commands.argument.entity.options.region"));
 
@@ -321,6 +324,10 @@ public class EntitySelectorOptionsExtension {
       }
 
       final ImmutableList<EntitySelector> build = entitySelectors.build();
+      if (build.stream().anyMatch(entitySelector -> entitySelector.getLimit() < Integer.MAX_VALUE || EntitySelectorExtras.getOf(entitySelector).materializesEntities)) {
+        // 限制了数量的实体选择器会在创建谓词时选择实体
+        EntitySelectorReaderExtras.getOf(reader).materializesEntities = true;
+      }
       EntitySelectorReaderExtras.getOf(reader).addPredicateAndDescription(source -> new AlternativesEntityPredicateEntry(build, source, inverted));
     }, Predicates.alwaysTrue(), Text.translatable("enhanced_commands.argument.entity.options.alternatives"));
 
@@ -460,7 +467,7 @@ public class EntitySelectorOptionsExtension {
           reader.setSuggestionProvider((suggestionsBuilder, suggestionsBuilderConsumer) -> parser.buildSuggestions(EntitySelectorReaderExtras.getOf(reader).context, suggestionsBuilder));
           final BlockPredicateArgument blockPredicateArgument = BlockPredicateArgument.parse(MixinShared.getCommandRegistryAccess(), parser, false);
 
-          map.put(posArgument, blockPredicateArgument);
+          map.put(posArgument, compileIfConstant(blockPredicateArgument));
           stringReader.skipWhitespace();
 
           reader.setSuggestionProvider((suggestionsBuilder, suggestionsBuilderConsumer) -> suggestionsBuilder.suggest(",").suggest("}").buildFuture());
@@ -488,7 +495,11 @@ public class EntitySelectorOptionsExtension {
         parser.suggestionProviders.clear();
         reader.setSuggestionProvider((suggestionsBuilder, suggestionsBuilderConsumer) -> parser.buildSuggestions(EntitySelectorReaderExtras.getOf(reader).context, suggestionsBuilder));
         final BlockPredicateArgument parse = BlockPredicateArgument.parse(MixinShared.getCommandRegistryAccess(), parser, false);
-        EntitySelectorReaderExtras.getOf(reader).addPredicateAndDescription(source -> new BlockPredicateEntityPredicateEntry(parse.apply(source)));
+        if (parse instanceof BlockPredicate blockPredicate) {
+          EntitySelectorReaderExtras.getOf(reader).addPredicateAndDescription(new BlockPredicateEntityPredicateEntry(CompiledBlockPredicate.of(blockPredicate)));
+        } else {
+          EntitySelectorReaderExtras.getOf(reader).addPredicateAndDescription(source -> new BlockPredicateEntityPredicateEntry(parse.apply(source)));
+        }
       }
     }, Predicates.alwaysTrue(), Text.translatable("enhanced_commands.entity_predicate.block"));
 
@@ -578,6 +589,13 @@ public class EntitySelectorOptionsExtension {
     return ((EntitySelectorReaderExtension) reader).ec$getExt().usedParams.put(option, inverted);
   }
 
+  /**
+   * 如果方块谓词不取决于命令源，则在解析时就进行编译，从而只需要创建一次查找表。取决于命令源的方块谓词每次使用时都需要重新计算，因此不进行编译。
+   */
+  private static BlockPredicateArgument compileIfConstant(BlockPredicateArgument blockPredicateArgument) {
+    return blockPredicateArgument instanceof BlockPredicate blockPredicate ? CompiledBlockPredicate.of(blockPredicate) : blockPredicateArgument;
+  }
+
   /**
    * 参数从未被以非反向的方式使用过。如果参数是以反向的方式使用的，则没有影响。
    */
@@ -827,22 +845,7 @@ public class EntitySelectorOptionsExtension {
     if (stringReader.canRead() && stringReader.peek() == '{') {
       reader.setSuggestionProvider(EntitySelectorReader.DEFAULT_SUGGESTION_PROVIDER);
       final LootCondition lootCondition = ParsingUtil.parseJson(stringReader, input -> LOOT_CONDITION_GSON.fromJson(input, LootCondition.class), ModCommandExceptionTypes.INVALID_LOOT_TABLE_JSON);
-      reader.setPredicate(entity -> {
-        if (!(entity.world instanceof ServerWorld serverWorld)) {
-          return false;
-        } else {
-          if (lootCondition == null) {
-            return false;
-          } else {
-            LootContext lootContext = new LootContext.Builder(serverWorld)
-                .parameter(LootContextParameters.THIS_ENTITY, entity)
-                .parameter(LootContextParameters.ORIGIN, entity.getPos())
-                .build(LootContextTypes.SELECTOR);
-            return hasNegation ^ lootCondition.test(lootContext);
-          }
-        }
-      });
-      EntitySelectorReaderExtras.getOf(reader).addDescription(source -> new LootTablePredicateAnonymousEntityPredicateEntry(lootCondition, hasNegation));
+      EntitySelectorReaderExtras.getOf(reader).addPredicateAndDescription(new LootTablePredicateAnonymousEntityPredicateEntry(lootCondition, hasNegation));
       return true;
     }
     return false;
@@ -7,6 +7,7 @@ import it.unimi.dsi.fastutil.objects.Object2BooleanOpenHashMap;
 import net.minecraft.command.EntitySelectorReader;
 import net.minecraft.entity.Entity;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.util.math.Box;
 import org.apache.commons.lang3.function.FailableFunction;
 import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.util.mixin.EntitySelectorReaderExtension;
@@ -49,16 +50,34 @@ public class EntitySelectorReaderExtras {
    * 如果使用了 {@code @p} 搭配负 {@code limit} 值，则为 {@code true}。
    */
   public boolean implicitNegativeLimit = false;
+  /**
+   * 此参数会在 {@link EntitySelectorReader#build()} 中，为不依赖命令源的谓词，只需要创建一次。
+   *
+   * @see pers.solid.ecmd.mixin.EntitySelectorReaderMixin
+   */
+  public @Nullable List<Predicate<Entity>> constantPredicates = null;
   /**
    * 此参数会在 {@link EntitySelectorReader#build()} 中。
    *
    * @see pers.solid.ecmd.mixin.EntitySelectorReaderMixin
    */
   public @Nullable List<FailableFunction<ServerCommandSource, Predicate<Entity>, CommandSyntaxException>> predicateFunctions = null;
+  /**
+   * 如果根据命令源创建谓词时会选择实体，则为 {@code true}。
+   *
+   * @see EntitySelectorExtras#materializesEntities
+   */
+  public boolean materializesEntities = false;
   /**
    * 此参数会在 {@link EntitySelectorReader#build()} 中，用于帮助对实体谓词进行描述以及序列化。
    */
   public @Nullable List<FailableFunction<ServerCommandSource, EntityPredicateEntry, CommandSyntaxException>> predicateDescriptions = null;
+  /**
+   * 此参数会在 {@link EntitySelectorReader#build()} 中，用于根据命令源计算实体所在的范围（绝对坐标），从而只需要查找这些范围内的实体。
+   *
+   * @see EntitySelectorExtras#createUpdatedBox(ServerCommandSource)
+   */
+  public @Nullable List<FailableFunction<ServerCommandSource, @Nullable Box, CommandSyntaxException>> boxFunctions = null;
   /**
    * 此 context 对象用于提供建议。在非提供建议的情景下，此字段有可能是 null。
    */
@@ -81,6 +100,16 @@ public class EntitySelectorReaderExtras {
     predicateFunctions.add(predicateFunction);
   }
 
+  public void addConstantPredicate(Predicate<Entity> predicate) {
+    var constantPredicates = this.constantPredicates == null ? (this.constantPredicates = new ArrayList<>()) : this.constantPredicates;
+    constantPredicates.add(predicate);
+  }
+
+  public void addBoxFunction(FailableFunction<ServerCommandSource, @Nullable Box, CommandSyntaxException> boxFunction) {
+    var boxFunctions = this.boxFunctions == null ? (this.boxFunctions = new ArrayList<>()) : this.boxFunctions;
+    boxFunctions.add(boxFunction);
+  }
+
   public void addDescription(EntityPredicateEntry predicateDescription) {
     addDescription(source -> predicateDescription);
   }
@@ -90,8 +119,18 @@ public class EntitySelectorReaderExtras {
     predicateDescriptions.add(predicateDescription);
   }
 
+  /**
+   * 添加不依赖命令源的谓词。开销较小的谓词会直接加入原版的谓词中，在本模组的其他谓词之前进行判断；开销较大的谓词会与本模组的其他谓词一起，按照开销从小到大的顺序进行判断。
+   *
+   * @see EntityPredicate#testCost()
+   * @see EntitySelectorExtras#createUpdatedPredicate(ServerCommandSource)
+   */
   public void addPredicateAndDescription(EntityPredicateEntry predicateDescription) {
-    self.setPredicate(predicateDescription);
+    if (predicateDescription.testCost() > 1) {
+      addConstantPredicate(predicateDescription);
+    } else {
+      self.setPredicate(predicateDescription);
+    }
     addDescription(predicateDescription);
   }
 
@@ -3,13 +3,24 @@ package pers.solid.ecmd.predicate.entity;
 import com.google.common.base.Predicate;
 import com.mojang.brigadier.StringReader;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import it.unimi.dsi.fastutil.ints.IntComparator;
 import net.minecraft.command.EntitySelector;
 import net.minecraft.command.EntitySelectorReader;
 import net.minecraft.entity.Entity;
 import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.util.math.Vec3d;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.mixin.EntitySelectorReaderAccessor;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiConsumer;
+
 /**
  * 此类包含了与实体选择器有关的一些实用方法。
  */
@@ -44,4 +55,97 @@ public final class EntitySelectors {
   public static Predicate<Entity> readOmittibleEntityPredicate(@NotNull EntitySelectorReader entitySelectorReader, ServerCommandSource source) throws CommandSyntaxException {
     return SelectorEntityPredicate.asPredicate(readOmittibleEntitySelector(entitySelectorReader), source);
   }
+
+  /**
+   * 对实体进行排序并只保留前 {@code limit} 个实体，结果与原版的先对所有实体进行排序、再截取前 {@code limit} 个实体的结果相同（对于随机排序，分布相同）。只支持 {@link EntitySelectorReader#NEAREST}、{@link EntitySelectorReader#FURTHEST} 和 {@link EntitySelectorReader#RANDOM}，因此 {@code @p}、{@code @r} 以及 {@code @p} 的负 {@code limit} 值都会使用此方法。
+   *
+   * @return 选择出的实体，如果不支持此排序方式，则为 {@code null}。
+   */
+  public static <T extends Entity> @Nullable List<T> selectSorted(BiConsumer<Vec3d, List<? extends Entity>> sorter, Vec3d pos, List<T> entities, int limit) {
+    if (sorter == EntitySelectorReader.NEAREST) {
+      return selectNearest(entities, pos, limit, false);
+    } else if (sorter == EntitySelectorReader.FURTHEST) {
+      return selectNearest(entities, pos, limit, true);
+    } else if (sorter == EntitySelectorReader.RANDOM) {
+      return selectRandom(entities, limit, ThreadLocalRandom.current());
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * 通过大小为 {@code limit} 的堆选择出距离最近（或最远）的实体并排序，时间复杂度为 O(n log k)，而不是对所有实体排序的 O(n log n)。与原版的稳定排序相同，距离相同的实体保持其原来的顺序。
+   */
+  public static <T extends Entity> List<T> selectNearest(List<T> entities, Vec3d pos, int limit, boolean furthest) {
+    final int size = entities.size();
+    final int k = Math.min(limit, size);
+    final double[] keys = new double[size];
+    for (int i = 0; i < size; i++) {
+      final double squaredDistance = entities.get(i).squaredDistanceTo(pos);
+      keys[i] = furthest ? -squaredDistance : squaredDistance;
+    }
+    final IntComparator comparator = (a, b) -> {
+      final int compare = Double.compare(keys[a], keys[b]);
+      return compare != 0 ? compare : Integer.compare(a, b);
+    };
+    // 以堆顶为最大值的堆，保存目前为止最小的 k 个实体的索引
+    final int[] heap = new int[k];
+    for (int i = 0; i < size; i++) {
+      if (i < k) {
+        heap[i] = i;
+        siftUp(heap, i, comparator);
+      } else if (k > 0 && comparator.compare(i, heap[0]) < 0) {
+        heap[0] = i;
+        siftDown(heap, k, comparator);
+      }
+    }
+    IntArrays.quickSort(heap, comparator);
+    final List<T> result = new ArrayList<>(k);
+    for (int index : heap) {
+      result.add(entities.get(index));
+    }
+    return result;
+  }
+
+  private static void siftUp(int[] heap, int child, IntComparator comparator) {
+    while (child > 0) {
+      final int parent = (child - 1) >> 1;
+      if (comparator.compare(heap[parent], heap[child]) >= 0) {
+        return;
+      }
+      IntArrays.swap(heap, parent, child);
+      child = parent;
+    }
+  }
+
+  private static void siftDown(int[] heap, int size, IntComparator comparator) {
+    int parent = 0;
+    while (2 * parent + 1 < size) {
+      int child = 2 * parent + 1;
+      if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) > 0) {
+        child++;
+      }
+      if (comparator.compare(heap[parent], heap[child]) >= 0) {
+        return;
+      }
+      IntArrays.swap(heap, parent, child);
+      parent = child;
+    }
+  }
+
+  /**
+   * 通过蓄水池抽样随机选择 {@code limit} 个实体，并打乱其顺序，不需要打乱所有的实体。
+   */
+  public static <T extends Entity> List<T> selectRandom(List<T> entities, int limit, Random random) {
+    final int size = entities.size();
+    final List<T> reservoir = new ArrayList<>(entities.subList(0, Math.min(limit, size)));
+    for (int i = reservoir.size(); i < size; i++) {
+      final int j = random.nextInt(i + 1);
+      if (j < reservoir.size()) {
+        reservoir.set(j, entities.get(i));
+      }
+    }
+    Collections.shuffle(reservoir, random);
+    return reservoir;
+  }
 }
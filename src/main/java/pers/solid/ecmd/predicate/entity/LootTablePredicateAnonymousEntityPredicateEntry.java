@@ -13,6 +13,23 @@ import pers.solid.ecmd.util.Styles;
 import pers.solid.ecmd.util.TextUtil;
 
 public record LootTablePredicateAnonymousEntityPredicateEntry(LootCondition lootCondition, boolean hasNegation) implements EntityPredicateEntry {
+  @Override
+  public boolean test(Entity entity) {
+    if (!(entity.world instanceof final ServerWorld serverWorld) || lootCondition == null) {
+      return false;
+    }
+    LootContext lootContext = new LootContext.Builder(serverWorld)
+        .parameter(LootContextParameters.THIS_ENTITY, entity)
+        .parameter(LootContextParameters.ORIGIN, entity.getPos())
+        .build(LootContextTypes.SELECTOR);
+    return hasNegation ^ lootCondition.test(lootContext);
+  }
+
+  @Override
+  public int testCost() {
+    return 16;
+  }
+
   @Override
   public TestResult testAndDescribe(Entity entity, Text displayName) throws CommandSyntaxException {
     if (!(entity.world instanceof final ServerWorld serverWorld)) {
@@ -13,6 +13,30 @@ import pers.solid.ecmd.util.Styles;
 import pers.solid.ecmd.util.TextUtil;
 
 public record LootTablePredicateEntityPredicateEntry(Identifier predicateId, boolean hasNegation) implements EntityPredicateEntry {
+  /**
+   * 与原版的 {@code predicate} 选项的谓词相同。
+   */
+  @Override
+  public boolean test(Entity entity) {
+    if (!(entity.world instanceof final ServerWorld serverWorld)) {
+      return false;
+    }
+    LootCondition lootCondition = serverWorld.getServer().getPredicateManager().get(predicateId);
+    if (lootCondition == null) {
+      return false;
+    }
+    LootContext lootContext = new LootContext.Builder(serverWorld)
+        .parameter(LootContextParameters.THIS_ENTITY, entity)
+        .parameter(LootContextParameters.ORIGIN, entity.getPos())
+        .build(LootContextTypes.SELECTOR);
+    return hasNegation ^ lootCondition.test(lootContext);
+  }
+
+  @Override
+  public int testCost() {
+    return 16;
+  }
+
   @Override
   public TestResult testAndDescribe(Entity entity, Text displayName) {
     if (!(entity.world instanceof final ServerWorld serverWorld)) {
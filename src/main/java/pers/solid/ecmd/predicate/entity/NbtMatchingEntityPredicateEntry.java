@@ -1,24 +1,36 @@
 package pers.solid.ecmd.predicate.entity;
 
 import net.minecraft.entity.Entity;
-import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtHelper;
-import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import pers.solid.ecmd.command.TestResult;
+import pers.solid.ecmd.nbt.EntityNbtExtractor;
 
+/**
+ * 实体的 NBT 是否与指定的 NBT 匹配。只会获取实体的 NBT 中与指定的 NBT 的顶层的键对应的部分，参见 {@link EntityNbtExtractor}。
+ */
 public record NbtMatchingEntityPredicateEntry(NbtCompound nbtCompound, boolean hasNegation) implements EntityPredicateEntry {
+  @Override
+  public boolean test(Entity entity) {
+    return matches(entity) != hasNegation;
+  }
+
+  /**
+   * 需要比较的键都可以直接从实体的字段得到时，开销较小，否则需要序列化整个实体。
+   */
+  @Override
+  public int testCost() {
+    return EntityNbtExtractor.canExtract(nbtCompound.getKeys()) ? 4 : 32;
+  }
+
+  private boolean matches(Entity entity) {
+    return NbtHelper.matches(nbtCompound, EntityNbtExtractor.extract(entity, nbtCompound.getKeys()), true);
+  }
+
   @Override
   public TestResult testAndDescribe(Entity entity, Text displayName) {
-    NbtCompound actualNbt = entity.writeNbt(new NbtCompound());
-    if (entity instanceof ServerPlayerEntity serverPlayerEntity) {
-      ItemStack itemStack = serverPlayerEntity.getInventory().getMainHandStack();
-      if (!itemStack.isEmpty()) {
-        actualNbt.put("SelectedItem", itemStack.writeNbt(new NbtCompound()));
-      }
-    }
-    boolean matches = NbtHelper.matches(nbtCompound, actualNbt, true);
+    boolean matches = matches(entity);
     return TestResult.of(matches != hasNegation, Text.translatable("enhanced_commands.entity_predicate.nbt." + (matches ? "pass" : "fail"), entity));
   }
 
@@ -2,6 +2,7 @@ package pers.solid.ecmd.predicate.entity;
 
 import com.google.common.base.Predicates;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
 import net.minecraft.command.EntitySelector;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.player.PlayerEntity;
@@ -25,7 +26,7 @@ import java.util.function.Predicate;
 
 /**
  * <p>通过实体选择器实现的实体谓词。在测试时，如果对应的实体选择器没有指定数量，则会根据实体选择器内的一些属性来对实体进行判断，包括判断实体是否为命令的指靠者、实体是否为玩家等。如果实体选择器限制了实体的数量，那么会先选择出这些数量的实体，然后再判断指定的实体是否属于被选择出来的这些实体。
- * <p>实体选择器在创建时，就会直接通过 {@link #asPredicate(EntitySelector, ServerCommandSource)} 计算出具体的、可直接用于判断的谓词。该谓词会在构造函数中直接计算出来，无需手动提供。
+ * <p>实体选择器在创建时，就会直接通过 {@link #asPredicate(EntitySelector, ServerCommandSource)} 计算出具体的、可直接用于判断的谓词。该谓词会在构造函数中直接计算出来，无需手动提供。因此，对于限制了数量的实体选择器，在同一个对象的生命周期内（通常为一次命令执行）只会选择一次实体，需要多次判断时，应当重复使用同一个对象，而不是每次都创建新的对象。
  * <p>此对象会包含一个 {@link ServerCommandSource} 对象。
  * <p>在创建了此对象之后，就不要再对 {@link EntitySelector} 进行后续的更改。
  */
@@ -51,8 +52,9 @@ public class SelectorEntityPredicate implements EntityPredicate {
    */
   public static com.google.common.base.Predicate<Entity> asPredicate(EntitySelector entitySelector, ServerCommandSource source) throws CommandSyntaxException {
     if (entitySelector.getLimit() < Integer.MAX_VALUE) {
+      // 实体没有覆盖 equals 和 hashCode，因此使用基于引用的集合，每次判断只需要常数时间
       final List<? extends Entity> entities = entitySelector.getEntities(source.hasPermissionLevel(2) ? source : source.withLevel(2));
-      return Predicates.in(entities);
+      return Predicates.in(new ReferenceOpenHashSet<>(entities));
     }
     EntitySelectorExtras.getOf(entitySelector).updateSource(source);
     final var accessor = (EntitySelectorAccessor) entitySelector;
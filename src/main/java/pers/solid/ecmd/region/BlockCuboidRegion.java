@@ -7,9 +7,12 @@ import net.minecraft.util.BlockRotation;
 import net.minecraft.util.math.*;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import pers.solid.ecmd.util.GeoUtil;
 
 import java.util.Iterator;
 import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * <p>The <b>block cuboid region</b> representing a cuboid defined by two block positions. It is similar to {@link CuboidRegion}, but positions are block positions, and are inclusive. A block position indicates a whole cube, instead of an accurate position.
@@ -55,6 +58,21 @@ public record BlockCuboidRegion(int minX, int minY, int minZ, int maxX, int maxY
     return BlockPos.iterate(minX, minY, minZ, maxX, maxY, maxZ).iterator();
   }
 
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    return GeoUtil.streamChunkSectionBoxes(blockBox()).flatMap(GeoUtil::streamBlockPos);
+  }
+
+  @Override
+  public LongStream longStream() {
+    return GeoUtil.longStreamBlockPos(blockBox());
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    return GeoUtil.streamChunkSectionBoxes(blockBox()).flatMapToLong(GeoUtil::longStreamBlockPos);
+  }
+
   @Override
   public @NotNull BlockCuboidRegion moved(@NotNull Vec3i relativePos) {
     return new BlockCuboidRegion(minX + relativePos.getX(), minY + relativePos.getY(), minZ + relativePos.getZ(), maxX + relativePos.getX(), maxY + relativePos.getY(), maxZ + relativePos.getZ());
@@ -21,6 +21,7 @@ import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.EnhancedPosArgumentType;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 import pers.solid.ecmd.util.mixin.CommandSyntaxExceptionExtension;
 
 import java.util.Iterator;
@@ -64,6 +65,11 @@ public record CuboidOutlineRegion(BlockCuboidRegion region, int thickness) imple
     return decompose().flatMap(Region::stream);
   }
 
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    return GeoUtil.streamBlockPosByChunkSection(region.blockBox(), decompose().map(BlockCuboidRegion::blockBox).toList());
+  }
+
   public @NotNull Stream<BlockCuboidRegion> decompose() {
     final Stream<BlockCuboidRegion> walls = new CuboidWallRegion(region, thickness).decompose();
     return Streams.concat(
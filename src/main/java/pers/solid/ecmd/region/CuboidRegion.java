@@ -22,6 +22,8 @@ import pers.solid.ecmd.util.NbtUtil;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 /**
  * <p>A <b>cuboid region</b> is a region representing a cuboid, which is defined by two positions. The positions are accurate positions, instead of block positions. The coordinates can be decimal, even if blocks only support non-decimal coordinates.
@@ -51,12 +53,35 @@ public record CuboidRegion(Box box) implements Region {
     return box.contains(vec3d);
   }
 
+  @Override
+  public int containsCost() {
+    return 1;
+  }
+
   @Override
   public @NotNull Iterator<BlockPos> iterator() {
     final BlockCuboidRegion round = round();
     return round == null ? Collections.emptyIterator() : round.iterator();
   }
 
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    final BlockCuboidRegion round = round();
+    return round == null ? Stream.empty() : round.streamByChunkSection();
+  }
+
+  @Override
+  public LongStream longStream() {
+    final BlockCuboidRegion round = round();
+    return round == null ? LongStream.empty() : round.longStream();
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    final BlockCuboidRegion round = round();
+    return round == null ? LongStream.empty() : round.longStreamByChunkSection();
+  }
+
   /**
    * Round the cuboid region into a block cuboid region, in which each block position's center position is in this cuboid region. It may be {@code null} if the region does not contain any block.
    */
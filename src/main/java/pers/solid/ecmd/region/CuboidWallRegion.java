@@ -9,6 +9,7 @@ import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 
 import java.util.Iterator;
 import java.util.stream.Stream;
@@ -84,6 +85,11 @@ public record CuboidWallRegion(BlockCuboidRegion region, int thickness) implemen
     return decompose().flatMap(Region::stream);
   }
 
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    return GeoUtil.streamBlockPosByChunkSection(region.blockBox(), decompose().map(BlockCuboidRegion::blockBox).toList());
+  }
+
   public @NotNull Stream<BlockCuboidRegion> decompose() {
     // 考虑正好中间的空间为零的情况，这种情况下，正好相当于实心的 BlockCuboidRegion
     if (region.minX() + thickness > region.maxX() - thickness
@@ -9,15 +9,18 @@ import net.minecraft.text.Text;
 import net.minecraft.util.math.*;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.annotations.Range;
 import org.joml.Vector2d;
 import pers.solid.ecmd.argument.EnhancedPosArgumentType;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 import pers.solid.ecmd.util.NbtUtil;
 
 import java.util.Iterator;
 import java.util.function.Function;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public record CylinderRegion(@Range(from = 0, to = Long.MAX_VALUE) double radius, @Range(from = 0, to = Long.MAX_VALUE) double height, Vec3d center) implements Region {
@@ -45,21 +48,104 @@ public record CylinderRegion(@Range(from = 0, to = Long.MAX_VALUE) double radius
     return MathHelper.ceil(center.y + height / 2 - 1.5);
   }
 
-  @Override
-  public Stream<BlockPos> stream() {
-    final Stream<BlockPos> oneHeightRound = BlockPos.stream(MathHelper.ceil(center.x - radius - 0.5), 0, MathHelper.ceil(center.z - radius - 0.5), MathHelper.floor(center.x + radius - 0.5), 0, MathHelper.floor(center.z + radius - 0.5)) // a one-height cuboid that contains a round
-        .filter(blockPos -> {
-          final Vec3d centerPos = blockPos.toCenterPos();
-          return Vector2d.distance(centerPos.x, centerPos.z, center.x, center.z) <= radius;
-        });
+  /**
+   * 包含此圆柱的所有方块的方块区域，如果圆柱不包含任何方块，则返回 {@code null}。
+   */
+  public @Nullable BlockBox boundingBlockBox() {
     final int bottomHeight = getBottomHeight();
     final int topHeight = getTopHeight();
-    if (bottomHeight > topHeight) {
-      // 这种情况一般不应该发生
+    final int minX = MathHelper.ceil(center.x - radius - 0.5);
+    final int minZ = MathHelper.ceil(center.z - radius - 0.5);
+    final int maxX = MathHelper.floor(center.x + radius - 0.5);
+    final int maxZ = MathHelper.floor(center.z + radius - 0.5);
+    if (bottomHeight > topHeight || minX > maxX || minZ > maxZ) {
+      return null;
+    }
+    return new BlockBox(minX, bottomHeight, minZ, maxX, topHeight, maxZ);
+  }
+
+  /**
+   * 在 z 坐标相同的一行中，在圆柱的底面内的坐标的 x 坐标的范围，判断方式与 {@link #contains(Vec3d)} 相同。
+   *
+   * @see GeoUtil#span(double, double, java.util.function.IntPredicate)
+   */
+  public int[] discSpan(int z) {
+    final double dz = z + 0.5 - center.z;
+    return GeoUtil.span(center.x, Math.sqrt(radius * radius - dz * dz), x -> Vector2d.distance(center.x, center.z, x + 0.5, z + 0.5) <= radius);
+  }
+
+  /**
+   * 预先计算方块区域中每一行的 {@link #discSpan(int)}，以 {@code z - box.getMinZ()} 为索引。由于每一行的范围与 y 坐标无关，因此只需要计算一次。
+   */
+  public int[][] discSpans(BlockBox box) {
+    final int[][] spans = new int[box.getBlockCountZ()][];
+    for (int i = 0; i < spans.length; i++) {
+      spans[i] = discSpan(box.getMinZ() + i);
+    }
+    return spans;
+  }
+
+  @Override
+  public Stream<BlockPos> stream() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
       return Stream.empty();
     }
-    return oneHeightRound
-        .flatMap(blockPos -> BlockPos.stream(blockPos.getX(), bottomHeight, blockPos.getZ(), blockPos.getX(), topHeight, blockPos.getZ()));
+    final int[][] discSpans = discSpans(box);
+    return GeoUtil.streamBlockPosBySpans(box, (y, z) -> discSpans[z - box.getMinZ()]);
+  }
+
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return Stream.empty();
+    }
+    final int[][] discSpans = discSpans(box);
+    // 整个区块段都在圆柱的外面时，直接跳过这个区块段
+    return GeoUtil.streamChunkSectionBoxes(box)
+        .filter(section -> GeoUtil.squaredDistanceToBlockBox(new Vec3d(center.x, section.getMinY(), center.z), section) <= radius * radius)
+        .flatMap(section -> GeoUtil.streamBlockPosBySpans(section, (y, z) -> discSpans[z - box.getMinZ()]));
+  }
+
+  @Override
+  public LongStream longStream() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return LongStream.empty();
+    }
+    final int[][] discSpans = discSpans(box);
+    return GeoUtil.longStreamBlockPosBySpans(box, (y, z) -> discSpans[z - box.getMinZ()]);
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return LongStream.empty();
+    }
+    final int[][] discSpans = discSpans(box);
+    return GeoUtil.streamChunkSectionBoxes(box)
+        .filter(section -> GeoUtil.squaredDistanceToBlockBox(new Vec3d(center.x, section.getMinY(), center.z), section) <= radius * radius)
+        .flatMapToLong(section -> GeoUtil.longStreamBlockPosBySpans(section, (y, z) -> discSpans[z - box.getMinZ()]));
+  }
+
+  /**
+   * 逐行计算出的精确的方块数量。
+   */
+  @Override
+  public long numberOfBlocksAffected() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return 0;
+    }
+    long discBlocks = 0;
+    for (int[] span : discSpans(box)) {
+      if (span.length == 2) {
+        discBlocks += span[1] - span[0] + 1;
+      }
+    }
+    return discBlocks * box.getBlockCountY();
   }
 
   @Override
@@ -1,6 +1,5 @@
 package pers.solid.ecmd.region;
 
-import com.google.common.collect.Streams;
 import com.mojang.brigadier.arguments.ArgumentType;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.command.CommandRegistryAccess;
@@ -14,11 +13,10 @@ import org.joml.Vector2d;
 import pers.solid.ecmd.argument.EnhancedPosArgumentType;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 
-import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.List;
-import java.util.function.Function;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public record HollowCylinderRegion(CylinderRegion region, OutlineRegion.OutlineTypes outlineType) implements RegionBasedRegion<HollowCylinderRegion, CylinderRegion> {
@@ -69,31 +67,98 @@ public record HollowCylinderRegion(CylinderRegion region, OutlineRegion.OutlineT
 
   @Override
   public Stream<BlockPos> stream() {
-    final Vec3d center = region.center();
-    final double radius = region.radius();
-    final int topHeight = region.getTopHeight();
-    final int bottomHeight = region.getBottomHeight();
+    final BlockBox box = region.boundingBlockBox();
+    if (box == null) {
+      return Stream.empty();
+    }
+    return GeoUtil.streamBlockPosBySpans(box, rowSpans(box));
+  }
 
-    final Iterable<BlockPos> iterable = BlockPos.iterate(MathHelper.ceil(center.x - radius - 0.5), 0, MathHelper.ceil(center.z - radius - 0.5), MathHelper.floor(center.x + radius - 0.5), 0, MathHelper.floor(center.z + radius - 0.5));
-    final Stream<BlockPos> flatOutlineRoundStream = Streams.stream(iterable).filter(blockPos -> horizontallyWithinHollowCylinder(region, outlineType, blockPos));
-    if (outlineType == OutlineRegion.OutlineTypes.OUTLINE || outlineType == OutlineRegion.OutlineTypes.OUTLINE_CONNECTED || outlineType == OutlineRegion.OutlineTypes.FLOOR_AND_CEIL) {
-      if (topHeight == bottomHeight) {
-        return Streams.stream(iterable).map(blockPos -> blockPos.withY(bottomHeight));
-      } else if (topHeight < bottomHeight) {
-        throw new IllegalStateException("Invalid hollow cylinder! topHeight < bottomHeight, topHeight = " + topHeight + ", bottomHeight = " + bottomHeight);
-      }
-      List<Stream<BlockPos>> parts = new ArrayList<>();
-      // add top and bottom ceiling
-      parts.add(Streams.stream(iterable).filter(blockPos -> horizontallyWithinCylinder(region, Vec3d.ofCenter(blockPos))).flatMap(blockPos -> Stream.of(blockPos.withY(topHeight), blockPos.withY(bottomHeight))));
-      // add walls that excluded the top and bottom ceiling
-      if (outlineType != OutlineRegion.OutlineTypes.FLOOR_AND_CEIL && topHeight - 1 > bottomHeight + 1) {
-        parts.add(flatOutlineRoundStream.flatMap(blockPos -> BlockPos.stream(blockPos.getX(), bottomHeight + 1, blockPos.getZ(), blockPos.getX(), topHeight - 1, blockPos.getZ()).map(BlockPos::toImmutable)));
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    final BlockBox box = region.boundingBlockBox();
+    if (box == null) {
+      return Stream.empty();
+    }
+    final GeoUtil.RowSpans rowSpans = rowSpans(box);
+    return GeoUtil.streamChunkSectionBoxes(box).flatMap(section -> GeoUtil.streamBlockPosBySpans(section, rowSpans));
+  }
+
+  @Override
+  public LongStream longStream() {
+    final BlockBox box = region.boundingBlockBox();
+    if (box == null) {
+      return LongStream.empty();
+    }
+    return GeoUtil.longStreamBlockPosBySpans(box, rowSpans(box));
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    final BlockBox box = region.boundingBlockBox();
+    if (box == null) {
+      return LongStream.empty();
+    }
+    final GeoUtil.RowSpans rowSpans = rowSpans(box);
+    return GeoUtil.streamChunkSectionBoxes(box).flatMapToLong(section -> GeoUtil.longStreamBlockPosBySpans(section, rowSpans));
+  }
+
+  /**
+   * 逐行计算出的精确的方块数量。
+   */
+  @Override
+  public long numberOfBlocksAffected() {
+    final BlockBox box = region.boundingBlockBox();
+    if (box == null) {
+      return 0;
+    }
+    return GeoUtil.countBlockPosBySpans(box, rowSpans(box));
+  }
+
+  /**
+   * 与 {@link #contains(Vec3i)} 的判断方式一致：顶部和底部的层包含整个圆，其余的层只包含墙所在的列。由于圆在每一行中是连续的，因此墙所在的列就是圆的范围去掉“内部”的范围，内部的范围即其附近的坐标都在圆内的范围，可以由相邻的行的范围直接求出，最多分为左右两段。
+   */
+  private GeoUtil.RowSpans rowSpans(BlockBox box) {
+    final int bottomHeight = region.getBottomHeight();
+    final int topHeight = region.getTopHeight();
+    final boolean hasFloorAndCeil = outlineType == OutlineRegion.OutlineTypes.OUTLINE || outlineType == OutlineRegion.OutlineTypes.OUTLINE_CONNECTED || outlineType == OutlineRegion.OutlineTypes.FLOOR_AND_CEIL;
+    final boolean hasWalls = outlineType != OutlineRegion.OutlineTypes.FLOOR_AND_CEIL;
+    final boolean connected = outlineType == OutlineRegion.OutlineTypes.OUTLINE_CONNECTED || outlineType == OutlineRegion.OutlineTypes.WALL_CONNECTED;
+    // 包括 box 前后各一行，以 z - box.getMinZ() + 1 为索引
+    final int[][] discSpans = new int[box.getBlockCountZ() + 2][];
+    for (int i = 0; i < discSpans.length; i++) {
+      discSpans[i] = region.discSpan(box.getMinZ() - 1 + i);
+    }
+    final int[][] wallSpans = new int[box.getBlockCountZ()][];
+    for (int i = 0; i < wallSpans.length; i++) {
+      wallSpans[i] = wallSpan(discSpans[i + 1], discSpans[i], discSpans[i + 2], connected);
+    }
+    return (y, z) -> {
+      if (hasFloorAndCeil && (y == bottomHeight || y == topHeight)) {
+        return discSpans[z - box.getMinZ() + 1];
+      } else if (hasWalls) {
+        return wallSpans[z - box.getMinZ()];
+      } else {
+        return GeoUtil.EMPTY_SPANS;
       }
-      return parts.stream().flatMap(Function.identity());
-    } else {
-      // walls only
-      return flatOutlineRoundStream.flatMap(blockPos -> BlockPos.stream(blockPos.getX(), bottomHeight, blockPos.getZ(), blockPos.getX(), topHeight, blockPos.getZ()));
+    };
+  }
+
+  private static int[] wallSpan(int[] disc, int[] previousDisc, int[] nextDisc, boolean connected) {
+    if (disc.length == 0) {
+      return GeoUtil.EMPTY_SPANS;
+    }
+    if (previousDisc.length == 0 || nextDisc.length == 0) {
+      return disc;
+    }
+    // 连通时，斜向相邻的坐标也需要在圆内，因此相邻行的范围也需要向内缩小一格
+    final int shrink = connected ? 1 : 0;
+    final int innerMin = Math.max(disc[0] + 1, Math.max(previousDisc[0], nextDisc[0]) + shrink);
+    final int innerMax = Math.min(disc[1] - 1, Math.min(previousDisc[1], nextDisc[1]) - shrink);
+    if (innerMin > innerMax) {
+      return disc;
     }
+    return new int[]{disc[0], innerMin - 1, innerMax + 1, disc[1]};
   }
 
   @Override
@@ -24,6 +24,11 @@ public interface IntBackedRegion extends Region {
     return contains(BlockPos.ofFloored(vec3d));
   }
 
+  @Override
+  default int containsCost() {
+    return 1;
+  }
+
   DynamicCommandExceptionType MOVE_MUST_INT = new DynamicCommandExceptionType(o -> Text.translatable("enhanced_commands.region.exception.move_must_int", o));
 
   @Override
@@ -6,6 +6,7 @@ import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Vec3d;
@@ -15,13 +16,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 import pers.solid.ecmd.util.NbtUtil;
 import pers.solid.ecmd.util.iterator.IterateUtils;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public record IntersectRegion(Collection<Region> regions) implements RegionsBasedRegion<IntersectRegion, Region> {
@@ -42,11 +42,98 @@ public record IntersectRegion(Collection<Region> regions) implements RegionsBase
 
   @Override
   public Stream<BlockPos> stream() {
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return longStream().mapToObj(mutable::set);
+  }
+
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return longStreamByChunkSection().mapToObj(mutable::set);
+  }
+
+  @Override
+  public LongStream longStream() {
+    return intersected(false);
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    return intersected(true);
+  }
+
+  /**
+   * 各区域的 {@link #minContainingBlockBox()} 的交集，区域中的所有坐标都在其中。{@code null} 表示无法确定，例如某个区域的长方体未知。
+   */
+  private @Nullable BlockBox clippingBox() {
+    BlockBox clip = null;
+    for (Region region : regions) {
+      final BlockBox box = region.minContainingBlockBox();
+      if (box == null) {
+        continue;
+      }
+      clip = clip == null ? box : GeoUtil.intersection(clip, box);
+      if (clip == null) {
+        return EMPTY_BOX;
+      }
+    }
+    return clip;
+  }
+
+  /**
+   * 表示交集为空的长方体，与任何长方体都不相交。
+   */
+  private static final BlockBox EMPTY_BOX = new BlockBox(0, 0, 0, -1, -1, -1);
+
+  /**
+   * 在各区域以及所有区域的长方体的交集中，选择需要遍历的坐标数量最少的一个进行遍历，只保留在该长方体交集内的坐标，然后按照 {@link Region#containsCost()} 从小到大依次使用其他的区域进行判断。
+   */
+  private LongStream intersected(boolean byChunkSection) {
     if (regions.isEmpty()) {
-      return Stream.empty();
+      return LongStream.empty();
     }
-    return regions.iterator().next().stream()
-        .filter(blockPos -> regions.stream().allMatch(region -> region.contains(blockPos)));
+    final BlockBox clip = clippingBox();
+    if (clip == EMPTY_BOX) {
+      return LongStream.empty();
+    }
+    final List<Region> checks = new ArrayList<>(regions);
+    Region driver = clip == null ? checks.get(0) : null;
+    long driverCount = clip == null ? driver.numberOfBlocksAffected() : volumeOf(clip);
+    // 未指定长方体时，第一个区域已经计算过了，不需要重复计算
+    for (Region region : clip == null ? checks.subList(1, checks.size()) : checks) {
+      final long count = region.numberOfBlocksAffected();
+      if (count < driverCount) {
+        driver = region;
+        driverCount = count;
+      }
+    }
+    final LongStream stream;
+    if (driver == null) {
+      stream = byChunkSection ? GeoUtil.streamChunkSectionBoxes(clip).flatMapToLong(GeoUtil::longStreamBlockPos) : GeoUtil.longStreamBlockPos(clip);
+    } else {
+      checks.remove(driver);
+      stream = byChunkSection ? driver.longStreamByChunkSection() : driver.longStream();
+    }
+    checks.sort(Comparator.comparingInt(Region::containsCost));
+    final Region[] checkArray = checks.toArray(Region[]::new);
+    final boolean clipped = driver != null && clip != null && !clip.equals(driver.minContainingBlockBox());
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return stream.filter(value -> {
+      mutable.set(value);
+      if (clipped && !clip.contains(mutable)) {
+        return false;
+      }
+      for (Region region : checkArray) {
+        if (!region.contains(mutable)) {
+          return false;
+        }
+      }
+      return true;
+    });
+  }
+
+  private static long volumeOf(BlockBox box) {
+    return (long) box.getBlockCountX() * box.getBlockCountY() * box.getBlockCountZ();
   }
 
   @Override
@@ -63,11 +150,13 @@ public record IntersectRegion(Collection<Region> regions) implements RegionsBase
   }
 
   /**
-   * 和 {@link #volume()} 类似，其返回值是各区域中的最小值。
+   * 和 {@link #volume()} 类似，其返回值是各区域中的最小值，但不超过各区域的长方体的交集的体积。
    */
   @Override
   public long numberOfBlocksAffected() {
-    return regions.stream().mapToLong(Region::numberOfBlocksAffected).min().orElse(0);
+    final long count = regions.stream().mapToLong(Region::numberOfBlocksAffected).min().orElse(0);
+    final BlockBox clip = clippingBox();
+    return clip == null ? count : Math.min(count, clip == EMPTY_BOX ? 0 : volumeOf(clip));
   }
 
   @Override
@@ -7,6 +7,7 @@ import net.minecraft.util.math.Vec3i;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Iterator;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -47,4 +48,12 @@ public interface MappingRegion extends RegionBasedRegion<MappingRegion, Region>
     final BlockPos.Mutable mutable = new BlockPos.Mutable();
     return region().stream().map(blockPos -> mutable.set(getMappedPosOf(blockPos)));
   }
+
+  @Override
+  default LongStream longStream() {
+    return region().stream().mapToLong(blockPos -> {
+      final Vec3i mapped = getMappedPosOf(blockPos);
+      return BlockPos.asLong(mapped.getX(), mapped.getY(), mapped.getZ());
+    });
+  }
 }
@@ -0,0 +1,217 @@
+package pers.solid.ecmd.region;
+
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.util.BlockRotation;
+import net.minecraft.util.math.*;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * 预先计算了另一个区域中的所有坐标并存储为 {@link SectionedVoxelSet} 的区域。对于遍历或判断坐标的开销较大的区域（例如轮廓、嵌套的并集或交集），判断坐标是否在区域内只需要查找一次位图，遍历坐标时也不需要再次计算。
+ * <p>
+ * 此区域的描述与原先的区域相同，对此区域进行移动、旋转等变换时，得到的是对原先的区域进行变换后的区域，而不是预先计算的区域。
+ *
+ * @see #cached(Region)
+ */
+public record MaterializedRegion(@NotNull Region source, @NotNull SectionedVoxelSet voxels) implements Region {
+  /**
+   * 缓存中最多的区域数量。
+   */
+  public static final int CACHE_SIZE = 8;
+  /**
+   * 预先计算是在执行命令时一次性完成的，不会分散到多个游戏刻中，因此只有开销不超过此值的区域才会被预先计算。开销的上限按照区域的{@linkplain Region#minContainingBlockBox() 最小包含方块的长方体}的体积与{@linkplain Region#containsCost() 判断坐标的开销}之积估算。{@link Region#numberOfBlocksAffected()} 不能反映实际的开销，例如，相距较远的小区域的并集的轮廓虽然只有较少的方块，遍历时仍可能需要判断整个长方体中的坐标。
+   */
+  public static final long MAX_COST_TO_MATERIALIZE = 1L << 20;
+  /**
+   * 以原先的区域为键的最近使用的预先计算的区域。区域都是不可变的，因此相等的区域（例如每次从同一个区域选择中得到的区域）可以共用同一个结果。
+   */
+  private static final Map<Region, MaterializedRegion> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<Region, MaterializedRegion> eldest) {
+      return size() > CACHE_SIZE;
+    }
+  };
+
+  public static @NotNull MaterializedRegion of(@NotNull Region region) {
+    return new MaterializedRegion(region, SectionedVoxelSet.of(region));
+  }
+
+  /**
+   * 判断区域是否值得预先计算，即判断坐标的开销较大，且预先计算的开销不超过 {@link #MAX_COST_TO_MATERIALIZE}。长方体、球体等简单的区域可以直接高效地遍历，不需要预先计算。开销更大的区域直接使用原区域，由命令在遍历时分散到多个游戏刻中计算。
+   */
+  public static boolean worthMaterializing(@NotNull Region region) {
+    if (region instanceof MaterializedRegion) {
+      return false;
+    }
+    final int containsCost = region.containsCost();
+    if (containsCost <= 2) {
+      return false;
+    }
+    final BlockBox box = region.minContainingBlockBox();
+    if (box == null) {
+      return false;
+    }
+    // 分两步比较，以免体积溢出
+    final long maxVolume = MAX_COST_TO_MATERIALIZE / containsCost;
+    final long area = (long) box.getBlockCountX() * box.getBlockCountZ();
+    return area <= maxVolume && area * box.getBlockCountY() <= maxVolume;
+  }
+
+  /**
+   * 如果区域{@linkplain #worthMaterializing(Region) 值得预先计算}，则返回缓存中的或者新计算的预先计算的区域，否则直接返回原区域。玩家的活动区域会通过此方法获取，因此对同一个活动区域连续执行多个命令时，只需要计算一次。
+   */
+  public static @NotNull Region cached(@NotNull Region region) {
+    if (!worthMaterializing(region)) {
+      return region;
+    }
+    synchronized (CACHE) {
+      return CACHE.computeIfAbsent(region, MaterializedRegion::of);
+    }
+  }
+
+  @Override
+  public boolean contains(@NotNull Vec3i vec3i) {
+    return voxels.contains(vec3i.getX(), vec3i.getY(), vec3i.getZ());
+  }
+
+  /**
+   * 预先计算的只有方块坐标，因此对于精确坐标，直接由原区域判断。
+   */
+  @Override
+  public boolean contains(@NotNull Vec3d vec3d) {
+    return source.contains(vec3d);
+  }
+
+  @Override
+  public int containsCost() {
+    return 1;
+  }
+
+  @Override
+  public @NotNull Iterator<BlockPos> iterator() {
+    return stream().iterator();
+  }
+
+  @Override
+  public Stream<BlockPos> stream() {
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return longStream().mapToObj(mutable::set);
+  }
+
+  /**
+   * 坐标本身就是按照区块段的顺序存储的，因此与 {@link #stream()} 相同。
+   */
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    return stream();
+  }
+
+  @Override
+  public LongStream longStream() {
+    return voxels.longStream();
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    return voxels.longStream();
+  }
+
+  @Override
+  public @NotNull Region moved(@NotNull Vec3i relativePos) {
+    return source.moved(relativePos);
+  }
+
+  @Override
+  public @NotNull Region moved(@NotNull Vec3d relativePos) {
+    return source.moved(relativePos);
+  }
+
+  @Override
+  public @NotNull Region rotated(@NotNull BlockRotation blockRotation, @NotNull Vec3d pivot) {
+    return source.rotated(blockRotation, pivot);
+  }
+
+  @Override
+  public @NotNull Region mirrored(Direction.@NotNull Axis axis, @NotNull Vec3d pivot) {
+    return source.mirrored(axis, pivot);
+  }
+
+  @Override
+  public @NotNull Region transformed(Function<Vec3d, Vec3d> transformation) {
+    return source.transformed(transformation);
+  }
+
+  @Override
+  public @NotNull Region expanded(double offset) {
+    return source.expanded(offset);
+  }
+
+  @Override
+  public @NotNull Region expanded(double offset, Direction.Axis axis) {
+    return source.expanded(offset, axis);
+  }
+
+  @Override
+  public @NotNull Region expanded(double offset, Direction direction) {
+    return source.expanded(offset, direction);
+  }
+
+  @Override
+  public @NotNull Region expanded(double offset, Direction.Type type) {
+    return source.expanded(offset, type);
+  }
+
+  @Override
+  public @NotNull RegionType<MaterializedRegion> getType() {
+    return RegionTypes.MATERIALIZED;
+  }
+
+  @Override
+  public double volume() {
+    return voxels.size();
+  }
+
+  @Override
+  public long numberOfBlocksAffected() {
+    return voxels.size();
+  }
+
+  @Override
+  public @NotNull String asString() {
+    return source.asString();
+  }
+
+  @Override
+  public @Nullable Box minContainingBox() {
+    final BlockBox box = voxels.getBox();
+    return box == null ? null : Box.from(box);
+  }
+
+  @Override
+  public @Nullable BlockBox minContainingBlockBox() {
+    return voxels.getBox();
+  }
+
+  @Override
+  public void writeNbt(@NotNull NbtCompound nbtCompound) {
+    nbtCompound.put("source", source.createNbt());
+    voxels.writeNbt(nbtCompound);
+  }
+
+  public enum Type implements RegionType<MaterializedRegion> {
+    INSTANCE;
+
+    @Override
+    public @NotNull MaterializedRegion fromNbt(@NotNull NbtCompound nbtCompound, @NotNull World world) {
+      return new MaterializedRegion(Region.fromNbt(nbtCompound.getCompound("source"), world), SectionedVoxelSet.fromNbt(nbtCompound));
+    }
+  }
+}
@@ -1,5 +1,7 @@
 package pers.solid.ecmd.region;
 
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.Streams;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
@@ -12,10 +14,12 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 
-import java.util.Iterator;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.function.Predicate;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public record OutlineRegion(OutlineType outlineType, Region region) implements RegionBasedRegion<OutlineRegion, Region> {
@@ -57,6 +61,14 @@ public record OutlineRegion(OutlineType outlineType, Region region) implements R
     return outlineType.modifiedTest(region::contains, new BlockPos(vec3i));
   }
 
+  /**
+   * 判断时需要同时判断该坐标及其附近的坐标是否在原区域内。
+   */
+  @Override
+  public int containsCost() {
+    return 7 * region.containsCost();
+  }
+
   @Override
   public @NotNull Iterator<BlockPos> iterator() {
     return stream().iterator();
@@ -64,9 +76,112 @@ public record OutlineRegion(OutlineType outlineType, Region region) implements R
 
   @Override
   public Stream<BlockPos> stream() {
+    if (canUseBitmap()) {
+      final BlockPos.Mutable mutable = new BlockPos.Mutable();
+      return longStream().mapToObj(mutable::set);
+    }
     return region.stream().filter(this::contains);
   }
 
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    if (canUseBitmap()) {
+      final BlockPos.Mutable mutable = new BlockPos.Mutable();
+      return longStreamByChunkSection().mapToObj(mutable::set);
+    }
+    final BlockBox box = region.minContainingBlockBox();
+    if (box == null) {
+      return stream();
+    }
+    return GeoUtil.streamChunkSectionBoxes(box).flatMap(GeoUtil::streamBlockPos).filter(this::contains);
+  }
+
+  @Override
+  public LongStream longStream() {
+    if (canUseBitmap()) {
+      return longStreamByChunkSection();
+    }
+    return RegionBasedRegion.super.longStream();
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    if (canUseBitmap()) {
+      final OutlineTypes outlineTypes = (OutlineTypes) outlineType;
+      final BlockPos[] offsets = outlineTypes.streamNearbyPos(BlockPos.ORIGIN).toArray(BlockPos[]::new);
+      final PrimitiveIterator.OfLong positions = region.longStreamByChunkSection().iterator();
+      final Iterator<LongStream> sections = new AbstractIterator<>() {
+        private long pending;
+        private boolean hasPending;
+
+        @Override
+        protected LongStream computeNext() {
+          if (!hasPending) {
+            if (!positions.hasNext()) {
+              return endOfData();
+            }
+            pending = positions.nextLong();
+          }
+          final long sectionPos = ChunkSectionPos.fromBlockPos(pending);
+          final int minX = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(sectionPos));
+          final int minY = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(sectionPos));
+          final int minZ = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(sectionPos));
+          final VoxelBitmap inSection = new VoxelBitmap(new BlockBox(minX, minY, minZ, minX + 15, minY + 15, minZ + 15));
+          inSection.set(pending);
+          hasPending = false;
+          while (positions.hasNext()) {
+            final long next = positions.nextLong();
+            if (ChunkSectionPos.fromBlockPos(next) != sectionPos) {
+              pending = next;
+              hasPending = true;
+              break;
+            }
+            inSection.set(next);
+          }
+          return outlineSection(inSection, outlineTypes, offsets);
+        }
+      };
+      return Streams.stream(sections).flatMapToLong(Function.identity());
+    }
+    return RegionBasedRegion.super.longStreamByChunkSection();
+  }
+
+  /**
+   * 轮廓类型的附近的坐标都与该坐标相邻时，遍历坐标时会逐个区段地将原区域中的坐标转换为位图，并通过位运算计算轮廓，而不是对原区域中的每个坐标及其附近的坐标调用 {@link Region#contains(Vec3i)}。
+   */
+  private boolean canUseBitmap() {
+    return outlineType instanceof OutlineTypes;
+  }
+
+  /**
+   * 计算原区域在一个区段中的坐标的轮廓。区段中的坐标来自原区域的 {@link Region#longStreamByChunkSection()}，因此只有原区域实际经过的区段才会被计算。对于这些坐标的附近的坐标，只有不在位图中的才需要调用 {@link Region#contains(Vec3i)} 进行判断，并且每个坐标最多判断一次，因此区域内部的坐标不需要进行任何判断。
+   * <p>
+   * 同一个区段中的坐标在流中不一定是连续的，此时同一个区段会被计算多次，但是每次都只返回这一次得到的坐标中的轮廓。
+   *
+   * @param inSection 原区域在这一区段中的坐标，范围为整个区段。
+   */
+  private LongStream outlineSection(VoxelBitmap inSection, OutlineTypes outlineTypes, BlockPos[] offsets) {
+    final BlockBox section = inSection.getBox();
+    final BlockBox expanded = new BlockBox(section.getMinX() - 1, section.getMinY() - 1, section.getMinZ() - 1, section.getMaxX() + 1, section.getMaxY() + 1, section.getMaxZ() + 1);
+    final VoxelBitmap bitmap = new VoxelBitmap(expanded);
+    // 已经确定是否在原区域内的坐标
+    final VoxelBitmap known = new VoxelBitmap(expanded);
+    inSection.longStream().forEach(pos -> {
+      bitmap.set(pos);
+      known.set(pos);
+    });
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    inSection.longStream().forEach(pos -> {
+      for (BlockPos offset : offsets) {
+        mutable.set(pos).move(offset);
+        if (known.set(mutable.getX(), mutable.getY(), mutable.getZ()) && region.contains(mutable)) {
+          bitmap.set(mutable.getX(), mutable.getY(), mutable.getZ());
+        }
+      }
+    });
+    return bitmap.outline(outlineTypes).longStream(section).filter(inSection::get);
+  }
+
   @Override
   public @NotNull RegionType<OutlineRegion> getType() {
     return RegionTypes.OUTLINE;
@@ -3,6 +3,7 @@ package pers.solid.ecmd.region;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Streams;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
+import it.unimi.dsi.fastutil.longs.LongIterator;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.server.command.ServerCommandSource;
 import net.minecraft.util.BlockRotation;
@@ -18,7 +19,9 @@ import pers.solid.ecmd.util.GeoUtil;
 import pers.solid.ecmd.util.NbtConvertible;
 
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.function.Function;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 /**
@@ -54,6 +57,52 @@ public interface Region extends Iterable<BlockPos>, ExpressionConvertible, Regio
     return Streams.stream(this);
   }
 
+  /**
+   * 按照区块段的顺序返回该区域内的所有方块坐标的流，同一个区块段内的坐标是连续返回的，同一个区块内的区块段也是连续返回的，从而在大量访问或修改方块时避免在区块之间来回跳转。返回的坐标与 {@link #stream()} 的相同，但是顺序可能不同。<strong>注意：</strong>返回的 {@link BlockPos} 可能是{@linkplain BlockPos.Mutable 可变的}，参见 {@link #iterator()}。
+   *
+   * @implSpec 默认情况下直接返回 {@link #stream()}，不保证按照区块段的顺序。
+   * @see GeoUtil#streamChunkSectionBoxes(BlockBox)
+   */
+  default Stream<BlockPos> streamByChunkSection() {
+    return stream();
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回该区域内的所有方块坐标，与 {@link #iterator()} 返回的坐标和顺序相同，但不需要创建或修改 {@link BlockPos} 对象，可以通过 {@link BlockPos.Mutable#set(long)} 或 {@link BlockPos#unpackLongX(long)} 等方法获取坐标。
+   */
+  default LongIterator longIterator() {
+    final PrimitiveIterator.OfLong iterator = longStream().iterator();
+    return new LongIterator() {
+      @Override
+      public long nextLong() {
+        return iterator.nextLong();
+      }
+
+      @Override
+      public boolean hasNext() {
+        return iterator.hasNext();
+      }
+    };
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回该区域内的所有方块坐标的流，参见 {@link #longIterator()}。
+   *
+   * @implSpec 默认情况下将 {@link #stream()} 中的坐标转换为长整数。整数坐标的区域应该直接计算，而不经过 {@link BlockPos}。
+   */
+  default LongStream longStream() {
+    return stream().mapToLong(BlockPos::asLong);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式、按照区块段的顺序返回该区域内的所有方块坐标的流，与 {@link #streamByChunkSection()} 返回的坐标和顺序相同。
+   *
+   * @implSpec 默认情况下将 {@link #streamByChunkSection()} 中的坐标转换为长整数。
+   */
+  default LongStream longStreamByChunkSection() {
+    return streamByChunkSection().mapToLong(BlockPos::asLong);
+  }
+
   /**
    * 该区域沿指定的整数向量移动后的区域。默认情况下会将这个整数向量转换为浮点向量，但特定情况下可以修改此方法以避免使用浮点数。
    */
@@ -140,6 +189,14 @@ public interface Region extends Iterable<BlockPos>, ExpressionConvertible, Regio
     return Math.round(volume());
   }
 
+  /**
+   * 调用 {@link #contains(Vec3i)} 的相对开销的粗略估计，用于在组合区域中决定先使用哪个区域进行判断，开销较小的区域会先判断。只需要比较整数坐标的区域为 1。
+   */
+  @Contract(pure = true)
+  default int containsCost() {
+    return 2;
+  }
+
   @Override
   @NotNull String asString();
 
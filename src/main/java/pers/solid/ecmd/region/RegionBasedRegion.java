@@ -107,6 +107,11 @@ public interface RegionBasedRegion<T extends RegionBasedRegion<T, R>, R extends
     return region().minContainingBox();
   }
 
+  @Override
+  default int containsCost() {
+    return region().containsCost() + 1;
+  }
+
   @Override
   @NotNull
   default Iterator<BlockPos> iterator() {
@@ -208,6 +213,11 @@ public interface RegionBasedRegion<T extends RegionBasedRegion<T, R>, R extends
       return region().numberOfBlocksAffected();
     }
 
+    @Override
+    default int containsCost() {
+      return RegionBasedRegion.super.containsCost();
+    }
+
     @Override
     @Nullable
     default BlockBox minContainingBlockBox() {
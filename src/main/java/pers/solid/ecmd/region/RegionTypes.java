@@ -35,6 +35,7 @@ public final class RegionTypes {
   public static final CuboidWallRegion.Type CUBOID_WALL = register(CuboidWallRegion.Type.CUBOID_WALL_TYPE, "cuboid_wall");
   public static final OutwardsRegion.Type OUTWARDS = register(OutwardsRegion.Type.INSTANCE, "outwards");
   public static final ActiveRegionType ACTIVE_REGION = register(ActiveRegionType.TYPE, "active_region");
+  public static final MaterializedRegion.Type MATERIALIZED = register(MaterializedRegion.Type.INSTANCE, "materialized");
 
   public static final RegionSelection.Type BUILDER = register(RegionSelection.Type.INSTANCE, "builder");
 
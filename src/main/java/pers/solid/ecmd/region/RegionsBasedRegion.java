@@ -19,6 +19,11 @@ public interface RegionsBasedRegion<T extends RegionsBasedRegion<T, R>, R extend
     return newRegion(regions().stream().map(transformation).toList());
   }
 
+  @Override
+  default int containsCost() {
+    return regions().stream().mapToInt(Region::containsCost).sum();
+  }
+
   @Override
   @NotNull
   default T moved(@NotNull Vec3i relativePos) {
@@ -0,0 +1,239 @@
+package pers.solid.ecmd.region;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrays;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import pers.solid.ecmd.util.NbtConvertible;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+
+/**
+ * 按区块段压缩存储的方块坐标集合，不限制坐标的范围。与 Roaring Bitmap 类似，每个区块段中的坐标根据其数量选择以下的存储方式之一：
+ * <ul>
+ *   <li>不超过 {@link #ARRAY_MAX_SIZE} 个坐标时，存储为排好序的 {@code short[]}，每个元素为坐标在区块段内的索引；</li>
+ *   <li>区块段内的所有坐标都在集合中时，存储为共享的 {@link #FULL}；</li>
+ *   <li>其他情况下，存储为由 64 个 {@code long} 组成的位图。</li>
+ * </ul>
+ * 区块段内的索引与 {@link net.minecraft.world.chunk.PalettedContainer} 的相同，为 {@code y << 8 | z << 4 | x}。判断坐标是否在集合中只需要查找一次区块段并读取一个位（或者对至多 256 个元素进行二分查找）。集合创建后不可修改，需要通过 {@link Builder} 创建。
+ */
+public final class SectionedVoxelSet implements NbtConvertible {
+  /**
+   * 区块段使用 {@code short[]} 存储时最多的坐标数量，此时占用的内存与位图相同。
+   */
+  public static final int ARRAY_MAX_SIZE = 256;
+  private static final int SECTION_SIZE = 4096;
+  private static final long[] FULL = LongStream.generate(() -> -1L).limit(SECTION_SIZE / 64).toArray();
+  /**
+   * 各区块段的数据，为 {@code short[]} 或 {@code long[]}。
+   */
+  private final Long2ObjectMap<Object> sections;
+  /**
+   * 按照区块段的顺序排列的各区块段的坐标，顺序与 {@link pers.solid.ecmd.util.GeoUtil#streamChunkSectionBoxes(BlockBox)} 相同。
+   */
+  private final long[] sectionKeys;
+  private final long size;
+  private final @Nullable BlockBox box;
+
+  private SectionedVoxelSet(Long2ObjectMap<Object> sections, long size, @Nullable BlockBox box) {
+    this.sections = sections;
+    this.size = size;
+    this.box = box;
+    this.sectionKeys = sections.keySet().toLongArray();
+    LongArrays.quickSort(sectionKeys, (a, b) -> {
+      if (ChunkSectionPos.unpackZ(a) != ChunkSectionPos.unpackZ(b)) {
+        return Integer.compare(ChunkSectionPos.unpackZ(a), ChunkSectionPos.unpackZ(b));
+      } else if (ChunkSectionPos.unpackX(a) != ChunkSectionPos.unpackX(b)) {
+        return Integer.compare(ChunkSectionPos.unpackX(a), ChunkSectionPos.unpackX(b));
+      } else {
+        return Integer.compare(ChunkSectionPos.unpackY(a), ChunkSectionPos.unpackY(b));
+      }
+    });
+  }
+
+  /**
+   * 遍历一次区域中的所有坐标，将其存储为集合。
+   */
+  public static @NotNull SectionedVoxelSet of(@NotNull Region region) {
+    final Builder builder = new Builder();
+    region.longStreamByChunkSection().forEach(builder::add);
+    return builder.build();
+  }
+
+  /**
+   * 集合中的坐标的数量。
+   */
+  public long size() {
+    return size;
+  }
+
+  /**
+   * 包含集合中所有坐标的最小的方块区域，集合为空时为 {@code null}。
+   */
+  public @Nullable BlockBox getBox() {
+    return box;
+  }
+
+  public boolean contains(int x, int y, int z) {
+    final Object section = sections.get(ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4));
+    if (section == null) {
+      return false;
+    }
+    final int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+    if (section instanceof long[] bits) {
+      return (bits[index >>> 6] & 1L << index) != 0;
+    } else {
+      return Arrays.binarySearch((short[]) section, (short) index) >= 0;
+    }
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式、按照区块段的顺序返回集合中的所有坐标。
+   */
+  public LongStream longStream() {
+    return Arrays.stream(sectionKeys).flatMap(key -> {
+      final int baseX = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(key));
+      final int baseY = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(key));
+      final int baseZ = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(key));
+      return indices(sections.get(key)).mapToLong(index -> BlockPos.asLong(baseX + (index & 15), baseY + (index >>> 8), baseZ + (index >>> 4 & 15)));
+    });
+  }
+
+  private static IntStream indices(Object section) {
+    if (section == FULL) {
+      return IntStream.range(0, SECTION_SIZE);
+    } else if (section instanceof long[] bits) {
+      final IntStream.Builder builder = IntStream.builder();
+      for (int w = 0; w < bits.length; w++) {
+        for (long word = bits[w]; word != 0; word &= word - 1) {
+          builder.add(w << 6 | Long.numberOfTrailingZeros(word));
+        }
+      }
+      return builder.build();
+    } else {
+      final short[] array = (short[]) section;
+      return IntStream.range(0, array.length).map(i -> array[i]);
+    }
+  }
+
+  @Override
+  public void writeNbt(@NotNull NbtCompound nbtCompound) {
+    final NbtList list = new NbtList();
+    for (long key : sectionKeys) {
+      final Object section = sections.get(key);
+      final NbtCompound sectionNbt = new NbtCompound();
+      sectionNbt.putLong("pos", key);
+      if (section == FULL) {
+        sectionNbt.putBoolean("full", true);
+      } else if (section instanceof long[] bits) {
+        sectionNbt.putLongArray("bits", bits);
+      } else {
+        final short[] array = (short[]) section;
+        sectionNbt.putIntArray("indices", IntStream.range(0, array.length).map(i -> array[i]).toArray());
+      }
+      list.add(sectionNbt);
+    }
+    nbtCompound.put("sections", list);
+  }
+
+  public static @NotNull SectionedVoxelSet fromNbt(@NotNull NbtCompound nbtCompound) {
+    final Builder builder = new Builder();
+    final NbtList list = nbtCompound.getList("sections", NbtElement.COMPOUND_TYPE);
+    for (int i = 0; i < list.size(); i++) {
+      final NbtCompound sectionNbt = list.getCompound(i);
+      final long key = sectionNbt.getLong("pos");
+      final IntStream indices;
+      if (sectionNbt.getBoolean("full")) {
+        indices = IntStream.range(0, SECTION_SIZE);
+      } else if (sectionNbt.contains("bits", NbtElement.LONG_ARRAY_TYPE)) {
+        final long[] bits = sectionNbt.getLongArray("bits");
+        indices = IntStream.range(0, Math.min(SECTION_SIZE, bits.length * 64)).filter(index -> (bits[index >>> 6] & 1L << index) != 0);
+      } else {
+        indices = Arrays.stream(sectionNbt.getIntArray("indices")).filter(index -> index >= 0 && index < SECTION_SIZE);
+      }
+      final int baseX = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackX(key));
+      final int baseY = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackY(key));
+      final int baseZ = ChunkSectionPos.getBlockCoord(ChunkSectionPos.unpackZ(key));
+      indices.forEach(index -> builder.add(baseX + (index & 15), baseY + (index >>> 8), baseZ + (index >>> 4 & 15)));
+    }
+    return builder.build();
+  }
+
+  /**
+   * 用于创建 {@link SectionedVoxelSet}。添加坐标时，每个区块段都使用位图存储，在 {@link #build()} 时再进行压缩。按照区块段的顺序添加坐标时速度最快。
+   */
+  public static final class Builder {
+    private final Long2ObjectOpenHashMap<long[]> sections = new Long2ObjectOpenHashMap<>();
+    private long lastKey;
+    private long[] lastBits;
+    private int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+    private int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+
+    public Builder add(int x, int y, int z) {
+      final long key = ChunkSectionPos.asLong(x >> 4, y >> 4, z >> 4);
+      long[] bits = lastBits;
+      if (bits == null || key != lastKey) {
+        bits = sections.computeIfAbsent(key, k -> new long[SECTION_SIZE / 64]);
+        lastKey = key;
+        lastBits = bits;
+      }
+      final int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+      bits[index >>> 6] |= 1L << index;
+      minX = Math.min(minX, x);
+      minY = Math.min(minY, y);
+      minZ = Math.min(minZ, z);
+      maxX = Math.max(maxX, x);
+      maxY = Math.max(maxY, y);
+      maxZ = Math.max(maxZ, z);
+      return this;
+    }
+
+    /**
+     * @see BlockPos#asLong()
+     */
+    public Builder add(long pos) {
+      return add(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos));
+    }
+
+    public SectionedVoxelSet build() {
+      final Long2ObjectOpenHashMap<Object> compressed = new Long2ObjectOpenHashMap<>(sections.size());
+      long size = 0;
+      for (Long2ObjectMap.Entry<long[]> entry : sections.long2ObjectEntrySet()) {
+        final long[] bits = entry.getValue();
+        int cardinality = 0;
+        for (long word : bits) {
+          cardinality += Long.bitCount(word);
+        }
+        if (cardinality == 0) {
+          continue;
+        }
+        size += cardinality;
+        if (cardinality == SECTION_SIZE) {
+          compressed.put(entry.getLongKey(), FULL);
+        } else if (cardinality <= ARRAY_MAX_SIZE) {
+          final short[] array = new short[cardinality];
+          int i = 0;
+          for (int index = 0; index < SECTION_SIZE; index++) {
+            if ((bits[index >>> 6] & 1L << index) != 0) {
+              array[i++] = (short) index;
+            }
+          }
+          compressed.put(entry.getLongKey(), array);
+        } else {
+          compressed.put(entry.getLongKey(), bits);
+        }
+      }
+      final BlockBox box = size == 0 ? null : new BlockBox(minX, minY, minZ, maxX, maxY, maxZ);
+      return new SectionedVoxelSet(compressed, size, box);
+    }
+  }
+}
@@ -20,6 +20,7 @@ import pers.solid.ecmd.util.NbtUtil;
 
 import java.util.Iterator;
 import java.util.function.Function;
+import java.util.stream.LongStream;
 
 public record SingleBlockPosRegion(Vec3i pos) implements IntBackedRegion {
   @Override
@@ -27,6 +28,16 @@ public record SingleBlockPosRegion(Vec3i pos) implements IntBackedRegion {
     return this.pos.equals(vec3i);
   }
 
+  @Override
+  public LongStream longStream() {
+    return LongStream.of(BlockPos.asLong(pos.getX(), pos.getY(), pos.getZ()));
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    return longStream();
+  }
+
   @Override
   public @NotNull Type getType() {
     return RegionTypes.SINGLE;
@@ -1,27 +1,36 @@
 package pers.solid.ecmd.region;
 
-import com.google.common.collect.Streams;
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import com.mojang.brigadier.exceptions.SimpleCommandExceptionType;
 import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.command.argument.PosArgument;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Direction;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.EnhancedPosArgumentType;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 import pers.solid.ecmd.util.NbtUtil;
 
 import java.util.Iterator;
 import java.util.function.Function;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 public record SphereRegion(double radius, Vec3d center) implements Region {
+  /**
+   * 精确计算方块数量时，最多计算的行数。
+   */
+  private static final long MAX_ROWS_TO_COUNT = 1 << 22;
+
   @Override
   public boolean contains(@NotNull Vec3d vec3d) {
     return vec3d.isInRange(center, radius);
@@ -29,7 +38,84 @@ public record SphereRegion(double radius, Vec3d center) implements Region {
 
   @Override
   public @NotNull Iterator<BlockPos> iterator() {
-    return Streams.stream(new CuboidRegion(center.add(-radius, -radius, -radius), center.add(radius, radius, radius))).filter(blockPos -> blockPos.isWithinDistance(center, radius)).iterator();
+    return stream().iterator();
+  }
+
+  /**
+   * 逐行计算在球内的坐标的范围，因此只会访问在球内的坐标。
+   */
+  @Override
+  public Stream<BlockPos> stream() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return Stream.empty();
+    }
+    return GeoUtil.streamBlockPosBySpans(box, this::rowSpan);
+  }
+
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return Stream.empty();
+    }
+    // 整个区块段都在球的外面时，直接跳过这个区块段
+    return GeoUtil.streamChunkSectionBoxes(box)
+        .filter(section -> GeoUtil.squaredDistanceToBlockBox(center, section) <= radius * radius)
+        .flatMap(section -> GeoUtil.streamBlockPosBySpans(section, this::rowSpan));
+  }
+
+  @Override
+  public LongStream longStream() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return LongStream.empty();
+    }
+    return GeoUtil.longStreamBlockPosBySpans(box, this::rowSpan);
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return LongStream.empty();
+    }
+    return GeoUtil.streamChunkSectionBoxes(box)
+        .filter(section -> GeoUtil.squaredDistanceToBlockBox(center, section) <= radius * radius)
+        .flatMapToLong(section -> GeoUtil.longStreamBlockPosBySpans(section, this::rowSpan));
+  }
+
+  private @Nullable BlockBox boundingBlockBox() {
+    final BlockCuboidRegion round = new CuboidRegion(center.add(-radius, -radius, -radius), center.add(radius, radius, radius)).round();
+    return round == null ? null : round.blockBox();
+  }
+
+  /**
+   * 在 (y, z) 这一行中，在球内的坐标的 x 坐标的范围，判断方式与 {@link #contains(Vec3d)} 相同。
+   */
+  private int[] rowSpan(int y, int z) {
+    final double dy = y + 0.5 - center.y;
+    final double dz = z + 0.5 - center.z;
+    final double squaredRadius = radius * radius;
+    return GeoUtil.span(center.x, Math.sqrt(squaredRadius - dy * dy - dz * dz), x -> {
+      final double dx = x + 0.5 - center.x;
+      return dx * dx + dy * dy + dz * dz < squaredRadius;
+    });
+  }
+
+  /**
+   * 逐行计算出的精确的方块数量。球过大时，逐行计算的开销也较大，此时仍根据体积进行估算。
+   */
+  @Override
+  public long numberOfBlocksAffected() {
+    final BlockBox box = boundingBlockBox();
+    if (box == null) {
+      return 0;
+    }
+    if ((long) box.getBlockCountY() * box.getBlockCountZ() > MAX_ROWS_TO_COUNT) {
+      return Region.super.numberOfBlocksAffected();
+    }
+    return GeoUtil.countBlockPosBySpans(box, this::rowSpan);
   }
 
   @Override
@@ -6,6 +6,7 @@ import net.minecraft.command.CommandRegistryAccess;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.text.Text;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Box;
 import net.minecraft.util.math.Vec3d;
@@ -15,10 +16,14 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import pers.solid.ecmd.argument.SuggestedParser;
 import pers.solid.ecmd.util.FunctionParamsParser;
+import pers.solid.ecmd.util.GeoUtil;
 import pers.solid.ecmd.util.NbtUtil;
 import pers.solid.ecmd.util.iterator.IterateUtils;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
 import java.util.stream.Stream;
 
 public record UnionRegion(Collection<Region> regions) implements RegionsBasedRegion<UnionRegion, Region> {
@@ -39,7 +44,98 @@ public record UnionRegion(Collection<Region> regions) implements RegionsBasedReg
 
   @Override
   public Stream<BlockPos> stream() {
-    return regions.stream().flatMap(Region::stream).map(BlockPos::toImmutable).distinct();
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return longStream().mapToObj(mutable::set);
+  }
+
+  /**
+   * 依次按照区块段的顺序返回各区域中的坐标。
+   */
+  @Override
+  public Stream<BlockPos> streamByChunkSection() {
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return longStreamByChunkSection().mapToObj(mutable::set);
+  }
+
+  /**
+   * 依次返回各区域中的坐标，已经返回过的坐标会被跳过。
+   */
+  @Override
+  public LongStream longStream() {
+    return deduplicated(Region::longStream);
+  }
+
+  @Override
+  public LongStream longStreamByChunkSection() {
+    return deduplicated(Region::longStreamByChunkSection);
+  }
+
+  /**
+   * 去重时使用的位集合所允许的最多的位数，即重叠部分的体积的上限，相当于 16 MiB 的内存。
+   */
+  private static final long MAX_BITSET_SIZE = 1L << 27;
+
+  /**
+   * 依次连接各区域的坐标并跳过已经返回过的坐标，不使用哈希集合：
+   * <ul>
+   *   <li>如果各区域的 {@link #minContainingBlockBox()} 两两不相交，则坐标不可能重复，直接连接各区域的坐标。</li>
+   *   <li>否则，只有这些长方体的两两交集中的坐标才可能重复，因此仅在包含这些交集的长方体中使用以坐标为索引的 {@link BitSet} 记录已经返回过的坐标。</li>
+   *   <li>如果有区域的长方体未知，或者重叠部分过大，则对于每个区域中的坐标，检查它是否已经被前面的、长方体与之相交的区域{@linkplain Region#contains(Vec3i) 包含}。此方式要求各区域的 {@code contains} 与其迭代的坐标一致。</li>
+   * </ul>
+   */
+  private LongStream deduplicated(Function<Region, LongStream> streamFunction) {
+    final List<Region> members = List.copyOf(regions);
+    final List<@Nullable BlockBox> boxes = members.stream().map(Region::minContainingBlockBox).toList();
+    BlockBox overlap = null;
+    boolean unknown = false;
+    for (int i = 0; i < members.size() && !unknown; i++) {
+      for (int j = 0; j < i; j++) {
+        final BlockBox box1 = boxes.get(i), box2 = boxes.get(j);
+        if (box1 == null || box2 == null) {
+          unknown = true;
+          break;
+        }
+        final BlockBox intersection = GeoUtil.intersection(box1, box2);
+        if (intersection != null) {
+          overlap = overlap == null ? intersection : new BlockBox(Math.min(overlap.getMinX(), intersection.getMinX()), Math.min(overlap.getMinY(), intersection.getMinY()), Math.min(overlap.getMinZ(), intersection.getMinZ()), Math.max(overlap.getMaxX(), intersection.getMaxX()), Math.max(overlap.getMaxY(), intersection.getMaxY()), Math.max(overlap.getMaxZ(), intersection.getMaxZ()));
+        }
+      }
+    }
+    if (!unknown && overlap == null) {
+      return members.stream().flatMapToLong(streamFunction);
+    }
+    if (!unknown && (long) overlap.getBlockCountX() * overlap.getBlockCountY() * overlap.getBlockCountZ() <= MAX_BITSET_SIZE) {
+      final BlockBox box = overlap;
+      final int countX = box.getBlockCountX(), countY = box.getBlockCountY(), countZ = box.getBlockCountZ();
+      final BitSet visited = new BitSet();
+      return members.stream().flatMapToLong(streamFunction).filter(value -> {
+        final int x = BlockPos.unpackLongX(value) - box.getMinX(), y = BlockPos.unpackLongY(value) - box.getMinY(), z = BlockPos.unpackLongZ(value) - box.getMinZ();
+        if (x < 0 || y < 0 || z < 0 || x >= countX || y >= countY || z >= countZ) {
+          return true;
+        }
+        final int index = x + countX * (y + countY * z);
+        if (visited.get(index)) {
+          return false;
+        }
+        visited.set(index);
+        return true;
+      });
+    }
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return IntStream.range(0, members.size()).boxed().flatMapToLong(i -> {
+      final BlockBox box = boxes.get(i);
+      final List<Region> earlier = IntStream.range(0, i).filter(j -> box == null || boxes.get(j) == null || box.intersects(boxes.get(j))).mapToObj(members::get).toList();
+      final LongStream stream = streamFunction.apply(members.get(i));
+      return earlier.isEmpty() ? stream : stream.filter(value -> {
+        mutable.set(value);
+        for (Region region : earlier) {
+          if (region.contains(mutable)) {
+            return false;
+          }
+        }
+        return true;
+      });
+    });
   }
 
   @Override
@@ -0,0 +1,271 @@
+package pers.solid.ecmd.region;
+
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Vec3i;
+import org.jetbrains.annotations.NotNull;
+import pers.solid.ecmd.util.GeoUtil;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 以位图的形式存储在一个 {@link BlockBox} 范围内的方块坐标的集合。y 和 z 坐标相同的一行坐标沿 x 轴存储为若干个 {@code long}，没有任何坐标的行不会分配内存，因此稀疏的区域也只会占用较少的内存。
+ * <p>
+ * 由于同一行中相邻的坐标是相邻的位，因此可以通过移位和按位与一次性计算 64 个坐标的附近的坐标是否都在集合中，见 {@link #outline(OutlineRegion.BasicOutlineType)}。
+ */
+public final class VoxelBitmap {
+  /**
+   * 位图的范围所允许的最大的体积。创建位图以及计算轮廓都是在一步中完成的，不会分散到多个游戏刻中，因此这个值不宜过大，遍历较大的区域时应当分别为各个区段创建位图。
+   * <p>
+   * 位图占用的内存除了每个坐标的一个位以外，还包括各行的引用（共 {@code countY * countZ} 个），以及已分配的各行的数组头（约 16 字节）。因此 x 轴方向较短时，每个坐标平均占用的内存更多，最坏的情况下约为每个坐标 32 字节，即 32 MiB；{@link #outline(OutlineRegion.BasicOutlineType)} 还会创建另一个同样大小的位图。
+   */
+  public static final long MAX_VOLUME = 1L << 20;
+  private final @NotNull BlockBox box;
+  private final int countX, countY, countZ;
+  private final int wordsPerRow;
+  /**
+   * 以 {@code (y - minY) * countZ + (z - minZ)} 为索引的各行，{@code null} 表示这一行没有任何坐标。
+   */
+  private final long[][] rows;
+  private long size;
+
+  public VoxelBitmap(@NotNull BlockBox box) {
+    if (volumeOf(box) > MAX_VOLUME) {
+      throw new IllegalArgumentException("The box is too large for a voxel bitmap: " + box);
+    }
+    this.box = box;
+    this.countX = box.getBlockCountX();
+    this.countY = box.getBlockCountY();
+    this.countZ = box.getBlockCountZ();
+    this.wordsPerRow = (countX + 63) >>> 6;
+    this.rows = new long[countY * countZ][];
+  }
+
+  private static long volumeOf(BlockBox box) {
+    return (long) box.getBlockCountX() * box.getBlockCountY() * box.getBlockCountZ();
+  }
+
+  public @NotNull BlockBox getBox() {
+    return box;
+  }
+
+  /**
+   * 集合中的坐标的数量。
+   */
+  public long size() {
+    return size;
+  }
+
+  private boolean isInBox(int x, int y, int z) {
+    return x >= box.getMinX() && x <= box.getMaxX() && y >= box.getMinY() && y <= box.getMaxY() && z >= box.getMinZ() && z <= box.getMaxZ();
+  }
+
+  public boolean get(int x, int y, int z) {
+    if (!isInBox(x, y, z)) {
+      return false;
+    }
+    final long[] row = rows[(y - box.getMinY()) * countZ + (z - box.getMinZ())];
+    final int bit = x - box.getMinX();
+    return row != null && (row[bit >>> 6] & 1L << bit) != 0;
+  }
+
+  public boolean get(@NotNull Vec3i vec3i) {
+    return get(vec3i.getX(), vec3i.getY(), vec3i.getZ());
+  }
+
+  /**
+   * @see BlockPos#asLong()
+   */
+  public boolean get(long pos) {
+    return get(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos));
+  }
+
+  /**
+   * 将坐标加入集合。超出范围的坐标会被忽略。
+   *
+   * @return 该坐标是否原先不在集合中并且成功加入。
+   */
+  public boolean set(int x, int y, int z) {
+    if (!isInBox(x, y, z)) {
+      return false;
+    }
+    final int index = (y - box.getMinY()) * countZ + (z - box.getMinZ());
+    long[] row = rows[index];
+    if (row == null) {
+      row = rows[index] = new long[wordsPerRow];
+    }
+    final int bit = x - box.getMinX();
+    final long previous = row[bit >>> 6];
+    row[bit >>> 6] = previous | 1L << bit;
+    if (previous == row[bit >>> 6]) {
+      return false;
+    }
+    size++;
+    return true;
+  }
+
+  /**
+   * @see BlockPos#asLong()
+   */
+  public boolean set(long pos) {
+    return set(BlockPos.unpackLongX(pos), BlockPos.unpackLongY(pos), BlockPos.unpackLongZ(pos));
+  }
+
+  /**
+   * 指定行（相对于范围的最小坐标）中的第 {@code w} 个 {@code long}，行中的每个位都向 x 轴正方向移动了 {@code dx} 格（{@code dx} 只能为 -1、0 或 1），即结果的第 {@code i} 位表示 x 坐标为 {@code i - dx} 的坐标。超出范围的行和位均视为 0。
+   */
+  private long shiftedWord(int y, int z, int w, int dx) {
+    if (y < 0 || y >= countY || z < 0 || z >= countZ) {
+      return 0;
+    }
+    final long[] row = rows[y * countZ + z];
+    if (row == null) {
+      return 0;
+    }
+    return switch (dx) {
+      case 0 -> row[w];
+      case 1 -> row[w] << 1 | (w > 0 ? row[w - 1] >>> 63 : 0);
+      case -1 -> row[w] >>> 1 | (w + 1 < wordsPerRow ? row[w + 1] << 63 : 0);
+      default -> throw new IllegalArgumentException("dx = " + dx);
+    };
+  }
+
+  /**
+   * 计算集合的轮廓，即集合中的、{@linkplain OutlineRegion.BasicOutlineType#streamNearbyPos(BlockPos) 附近的坐标}至少有一个不在集合中的坐标，与 {@link OutlineRegion.BasicOutlineType#modifiedTest} 的结果一致。每一行中的 64 个坐标是通过对各个附近的行的移位和按位与同时计算的，不需要逐个判断附近的坐标。
+   *
+   * @throws IllegalArgumentException 如果附近的坐标在某个轴上的距离超过 1。
+   */
+  public @NotNull VoxelBitmap outline(@NotNull OutlineRegion.BasicOutlineType outlineType) {
+    final int[][] offsets = outlineType.streamNearbyPos(BlockPos.ORIGIN).map(pos -> new int[]{pos.getX(), pos.getY(), pos.getZ()}).toArray(int[][]::new);
+    for (int[] offset : offsets) {
+      if (Math.abs(offset[0]) > 1 || Math.abs(offset[1]) > 1 || Math.abs(offset[2]) > 1) {
+        throw new IllegalArgumentException("Nearby positions of " + outlineType.asString() + " are not adjacent");
+      }
+    }
+    final VoxelBitmap result = new VoxelBitmap(box);
+    for (int y = 0; y < countY; y++) {
+      for (int z = 0; z < countZ; z++) {
+        final long[] row = rows[y * countZ + z];
+        if (row == null) {
+          continue;
+        }
+        long[] resultRow = null;
+        for (int w = 0; w < wordsPerRow; w++) {
+          long interior = row[w];
+          for (int i = 0; i < offsets.length && interior != 0; i++) {
+            // 附近的坐标 x + dx 对应的位需要向 x 轴负方向移动才能与 x 对齐
+            interior &= shiftedWord(y + offsets[i][1], z + offsets[i][2], w, -offsets[i][0]);
+          }
+          final long outline = row[w] & ~interior;
+          if (outline != 0) {
+            if (resultRow == null) {
+              resultRow = new long[wordsPerRow];
+            }
+            resultRow[w] = outline;
+            result.size += Long.bitCount(outline);
+          }
+        }
+        result.rows[y * countZ + z] = resultRow;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回集合中的所有坐标，依次遍历 y、z、x 坐标。
+   */
+  public LongStream longStream() {
+    return longStream(box);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式、按照区块段的顺序返回集合中的所有坐标。
+   *
+   * @see GeoUtil#streamChunkSectionBoxes(BlockBox)
+   */
+  public LongStream longStreamByChunkSection() {
+    return GeoUtil.streamChunkSectionBoxes(box).flatMapToLong(this::longStream);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回集合在指定范围中的所有坐标，依次遍历 y、z、x 坐标。
+   *
+   * @param range 需要遍历的范围，不能超出位图的范围。
+   */
+  public LongStream longStream(@NotNull BlockBox range) {
+    return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(new BitIterator(range), Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * 遍历集合在指定范围（不超出位图的范围）中的坐标，每次跳过一整个为 0 的 {@code long}。
+   */
+  private final class BitIterator implements PrimitiveIterator.OfLong {
+    private final int x0, x1, z0, z1, y1, w0, w1;
+    private int y, z, w;
+    private long[] row;
+    private long bits;
+
+    private BitIterator(BlockBox range) {
+      x0 = range.getMinX() - box.getMinX();
+      x1 = range.getMaxX() - box.getMinX();
+      z0 = range.getMinZ() - box.getMinZ();
+      z1 = range.getMaxZ() - box.getMinZ();
+      y1 = range.getMaxY() - box.getMinY();
+      w0 = x0 >>> 6;
+      w1 = x1 >>> 6;
+      y = range.getMinY() - box.getMinY();
+      z = z0;
+      w = w0 - 1;
+      row = rows[y * countZ + z];
+    }
+
+    private long mask(int w) {
+      long mask = -1L;
+      if (w == w0) {
+        mask &= -1L << (x0 & 63);
+      }
+      if (w == w1) {
+        mask &= -1L >>> (63 - (x1 & 63));
+      }
+      return mask;
+    }
+
+    @Override
+    public boolean hasNext() {
+      while (bits == 0) {
+        if (row != null && w < w1) {
+          w++;
+          bits = row[w] & mask(w);
+        } else {
+          if (y > y1) {
+            return false;
+          }
+          if (++z > z1) {
+            z = z0;
+            if (++y > y1) {
+              return false;
+            }
+          }
+          row = rows[y * countZ + z];
+          w = w0 - 1;
+        }
+      }
+      return true;
+    }
+
+    @Override
+    public long nextLong() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final int bit = Long.numberOfTrailingZeros(bits);
+      bits &= bits - 1;
+      return BlockPos.asLong(box.getMinX() + (w << 6) + bit, box.getMinY() + y, box.getMinZ() + z);
+    }
+  }
+}
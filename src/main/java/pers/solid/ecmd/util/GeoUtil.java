@@ -2,10 +2,15 @@ package pers.solid.ecmd.util;
 
 import net.minecraft.util.BlockMirror;
 import net.minecraft.util.BlockRotation;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.Direction;
-import net.minecraft.util.math.Vec3d;
-import net.minecraft.util.math.Vec3i;
+import net.minecraft.util.math.*;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public interface GeoUtil {
   static Vec3i rotate(Vec3i pos, BlockRotation rotation, Vec3i pivot) {
@@ -79,4 +84,209 @@ public interface GeoUtil {
       case Z -> new Vec3d(point.x, point.y, pivot.z * 2 - point.z);
     };
   }
+
+  /**
+   * 将方块区域按区块段分割为若干个方块区域。返回的每个方块区域都位于同一个区块段内，且不超出原有的方块区域。同一个区块中的各区块段是连续返回的，因此按照返回的顺序依次访问方块时，不会在区块之间来回跳转。
+   */
+  static Stream<BlockBox> streamChunkSectionBoxes(BlockBox box) {
+    final int minSectionX = ChunkSectionPos.getSectionCoord(box.getMinX());
+    final int minSectionY = ChunkSectionPos.getSectionCoord(box.getMinY());
+    final int minSectionZ = ChunkSectionPos.getSectionCoord(box.getMinZ());
+    final int maxSectionX = ChunkSectionPos.getSectionCoord(box.getMaxX());
+    final int maxSectionY = ChunkSectionPos.getSectionCoord(box.getMaxY());
+    final int maxSectionZ = ChunkSectionPos.getSectionCoord(box.getMaxZ());
+    return IntStream.rangeClosed(minSectionZ, maxSectionZ).boxed()
+        .flatMap(sectionZ -> IntStream.rangeClosed(minSectionX, maxSectionX).boxed()
+            .flatMap(sectionX -> IntStream.rangeClosed(minSectionY, maxSectionY)
+                .mapToObj(sectionY -> new BlockBox(
+                    Math.max(box.getMinX(), ChunkSectionPos.getBlockCoord(sectionX)),
+                    Math.max(box.getMinY(), ChunkSectionPos.getBlockCoord(sectionY)),
+                    Math.max(box.getMinZ(), ChunkSectionPos.getBlockCoord(sectionZ)),
+                    Math.min(box.getMaxX(), ChunkSectionPos.getBlockCoord(sectionX) + 15),
+                    Math.min(box.getMaxY(), ChunkSectionPos.getBlockCoord(sectionY) + 15),
+                    Math.min(box.getMaxZ(), ChunkSectionPos.getBlockCoord(sectionZ) + 15)))));
+  }
+
+  /**
+   * 返回方块区域内的所有方块坐标的流。返回的 {@link BlockPos} 是可变的。
+   */
+  static Stream<BlockPos> streamBlockPos(BlockBox box) {
+    return BlockPos.stream(box.getMinX(), box.getMinY(), box.getMinZ(), box.getMaxX(), box.getMaxY(), box.getMaxZ());
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式返回方块区域内的所有方块坐标的流，顺序与 {@link #streamBlockPos(BlockBox)} 相同。
+   */
+  static LongStream longStreamBlockPos(BlockBox box) {
+    final int minX = box.getMinX();
+    final int minY = box.getMinY();
+    final int minZ = box.getMinZ();
+    final long countX = box.getBlockCountX();
+    final long countXY = countX * box.getBlockCountY();
+    return LongStream.range(0, countXY * box.getBlockCountZ())
+        .map(index -> BlockPos.asLong(minX + (int) (index % countX), minY + (int) (index % countXY / countX), minZ + (int) (index / countXY)));
+  }
+
+  /**
+   * 两个方块区域的交集，如果两个区域不相交，则返回 {@code null}。
+   */
+  static @Nullable BlockBox intersection(BlockBox box1, BlockBox box2) {
+    if (!box1.intersects(box2)) {
+      return null;
+    }
+    return new BlockBox(Math.max(box1.getMinX(), box2.getMinX()), Math.max(box1.getMinY(), box2.getMinY()), Math.max(box1.getMinZ(), box2.getMinZ()), Math.min(box1.getMaxX(), box2.getMaxX()), Math.min(box1.getMaxY(), box2.getMaxY()), Math.min(box1.getMaxZ(), box2.getMaxZ()));
+  }
+
+  /**
+   * 按区块段的顺序返回若干个方块区域中的所有方块坐标，在每个区块段内，依次返回各个方块区域与这个区块段相交的部分。如果这些方块区域有重叠，那么重叠部分的坐标会重复返回，与依次返回各方块区域的坐标时相同。
+   *
+   * @param bound 包含所有方块区域的方块区域。
+   * @param boxes 需要返回坐标的各方块区域。
+   */
+  static Stream<BlockPos> streamBlockPosByChunkSection(BlockBox bound, List<BlockBox> boxes) {
+    return streamChunkSectionBoxes(bound).flatMap(section -> boxes.stream()
+        .map(box -> intersection(section, box))
+        .filter(Objects::nonNull)
+        .flatMap(GeoUtil::streamBlockPos));
+  }
+
+  /**
+   * 精确坐标到一个方块区域（包括其中每个方块的整个立方体）的最短距离的平方，如果坐标在方块区域内，则为 0。
+   */
+  static double squaredDistanceToBlockBox(Vec3d point, BlockBox box) {
+    final double dx = Math.max(0, Math.max(box.getMinX() - point.x, point.x - box.getMaxX() - 1));
+    final double dy = Math.max(0, Math.max(box.getMinY() - point.y, point.y - box.getMaxY() - 1));
+    final double dz = Math.max(0, Math.max(box.getMinZ() - point.z, point.z - box.getMaxZ() - 1));
+    return dx * dx + dy * dy + dz * dz;
+  }
+
+  int[] EMPTY_SPANS = new int[0];
+
+  /**
+   * 计算一行中在区域内的方块坐标的范围。区域在这一行中必须是连续的（例如圆或者球与这一行的交集）。
+   * <p>
+   * 范围先根据几何公式计算出的半宽进行估计，再使用 {@code inside} 检查并修正两个端点，因此结果与区域的 {@code contains} 完全一致，不受浮点数误差的影响。
+   *
+   * @param center    这一行中区域的中心的坐标。
+   * @param halfWidth 区域在这一行的半宽（以方块中心计），可以为负数或 {@link Double#NaN}，表示这一行几乎不与区域相交。
+   * @param inside    坐标是否在区域内，通常与区域的 {@code contains} 的判断方式相同。
+   * @return 范围的两个端点 {@code [min, max]}，如果这一行没有坐标在区域内，则返回 {@link #EMPTY_SPANS}。
+   */
+  static int[] span(double center, double halfWidth, IntPredicate inside) {
+    if (!(halfWidth >= 0)) {
+      halfWidth = 0;
+    }
+    int min = MathHelper.ceil(center - halfWidth - 0.5);
+    int max = MathHelper.floor(center + halfWidth - 0.5);
+    if (min > max) {
+      // 没有方块的中心在估计的范围内，只需要检查最接近中心的方块
+      final int nearest = MathHelper.floor(center);
+      return inside.test(nearest) ? new int[]{nearest, nearest} : EMPTY_SPANS;
+    }
+    while (inside.test(min - 1)) min--;
+    while (min <= max && !inside.test(min)) min++;
+    while (inside.test(max + 1)) max++;
+    while (max >= min && !inside.test(max)) max--;
+    return min <= max ? new int[]{min, max} : EMPTY_SPANS;
+  }
+
+  /**
+   * 返回一行中在区域内的方块的 x 坐标的若干个范围。
+   */
+  @FunctionalInterface
+  interface RowSpans {
+    /**
+     * @return 在 (y, z) 这一行中的各个范围，按 {@code [min0, max0, min1, max1, ...]} 的顺序排列，范围之间不能重叠。没有坐标在区域内时返回空数组。
+     */
+    int[] get(int y, int z);
+  }
+
+  /**
+   * 逐行返回方块区域内、且在 {@code rowSpans} 的范围内的坐标，不会访问范围以外的坐标。返回的 {@link BlockPos} 是可变的。
+   */
+  static Stream<BlockPos> streamBlockPosBySpans(BlockBox box, RowSpans rowSpans) {
+    final BlockPos.Mutable mutable = new BlockPos.Mutable();
+    return longStreamBlockPosBySpans(box, rowSpans).mapToObj(mutable::set);
+  }
+
+  /**
+   * 以 {@link BlockPos#asLong()} 的形式逐行返回方块区域内、且在 {@code rowSpans} 的范围内的坐标，参见 {@link #streamBlockPosBySpans(BlockBox, RowSpans)}。
+   */
+  static LongStream longStreamBlockPosBySpans(BlockBox box, RowSpans rowSpans) {
+    final PrimitiveIterator.OfLong iterator = new PrimitiveIterator.OfLong() {
+      private int y = box.getMinY();
+      private int z = box.getMinZ();
+      private int[] spans = rowSpans.get(y, z);
+      private int spanIndex = 0;
+      private int x = Integer.MIN_VALUE;
+      private boolean computed;
+      private boolean hasNext;
+
+      @Override
+      public boolean hasNext() {
+        if (!computed) {
+          hasNext = computeNext();
+          computed = true;
+        }
+        return hasNext;
+      }
+
+      @Override
+      public long nextLong() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        computed = false;
+        return BlockPos.asLong(x++, y, z);
+      }
+
+      /**
+       * 将 {@link #x}、{@link #y}、{@link #z} 移动到下一个坐标（若 {@link #x} 已经是下一个坐标，则不移动）。
+       */
+      private boolean computeNext() {
+        while (true) {
+          if (spanIndex < spans.length) {
+            final int min = Math.max(spans[spanIndex], box.getMinX());
+            final int max = Math.min(spans[spanIndex + 1], box.getMaxX());
+            if (x < min) {
+              x = min;
+            }
+            if (x <= max) {
+              return true;
+            }
+            spanIndex += 2;
+            x = Integer.MIN_VALUE;
+            continue;
+          }
+          if (y < box.getMaxY()) {
+            y++;
+          } else if (z < box.getMaxZ()) {
+            y = box.getMinY();
+            z++;
+          } else {
+            return false;
+          }
+          spans = rowSpans.get(y, z);
+          spanIndex = 0;
+        }
+      }
+    };
+    return StreamSupport.longStream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL), false);
+  }
+
+  /**
+   * 方块区域内、且在 {@code rowSpans} 的范围内的坐标的数量。
+   */
+  static long countBlockPosBySpans(BlockBox box, RowSpans rowSpans) {
+    long count = 0;
+    for (int z = box.getMinZ(); z <= box.getMaxZ(); z++) {
+      for (int y = box.getMinY(); y <= box.getMaxY(); y++) {
+        final int[] spans = rowSpans.get(y, z);
+        for (int i = 0; i + 1 < spans.length; i += 2) {
+          count += Math.max(0, Math.min(spans[i + 1], box.getMaxX()) - Math.max(spans[i], box.getMinX()) + 1);
+        }
+      }
+    }
+    return count;
+  }
 }
@@ -68,30 +68,6 @@ public final class IterateUtils {
     stream.forEach(o -> {});
   }
 
-  /**
-   * 调整 {@link Iterable} 的运行过程。
-   *
-   * @param forward   返回的对象所基于的可迭代对象。
-   * @param batchSize 一次运行的次数。
-   * @param skipTimes 一次运行后所跳过的次数。
-   */
-  @Contract(pure = true)
-  public static <E> Iterable<E> batchAndSkip(Iterable<E> forward, int batchSize, int skipTimes) {
-    return () -> new SkippingIterator<>(new BatchedIterator<>(forward.iterator(), batchSize), skipTimes);
-  }
-
-  /**
-   * 调用 {@link Iterator} 的运行过程。此过程会基于一个 {@code forward}，返回的 {@code iterator} 中，每调用一次 {@link Iterator#next()}，会调用多次 {@code forward.next()}，之后的几次 {@code next()} 都将被忽略并返回 {@code null}。
-   *
-   * @param forward   返回的对象所基于的迭代器。
-   * @param batchSize 迭代器运行一次 {@code next()} 时，{@code forward} 所运行 {@code next()} 的次数。
-   * @param skipTimes 迭代器运行一次 {@code next()} 后，之后多少次的 {@code next()} 将不执行任何操作（不调用 {@code forward.next()}）并返回 {@code null}。
-   */
-  @Contract(pure = true)
-  public static <E> Iterator<E> batchAndSkip(Iterator<E> forward, int batchSize, int skipTimes) {
-    return new SkippingIterator<>(new BatchedIterator<>(forward, batchSize), skipTimes);
-  }
-
   /**
    * 将一个可迭代对象中的各对象通过指定的函数转换进行转换并收集到新的列表中，返回的列表是可修改的。中途如果遇到异常，则会直接将其抛出并中止迭代过程。此过程类似于 {@link com.google.common.collect.Iterables#transform(Iterable, Function)} 或 {@link Stream#map(java.util.function.Function)}，但是允许中途抛出异常。
    *
@@ -6,6 +6,7 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.text.Text;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import pers.solid.ecmd.region.MaterializedRegion;
 import pers.solid.ecmd.region.Region;
 import pers.solid.ecmd.regionselection.RegionSelection;
 import pers.solid.ecmd.regionselection.RegionSelectionType;
@@ -26,12 +27,15 @@ public interface ServerPlayerEntityExtension {
 
   DynamicCommandExceptionType PLAYER_HAS_NO_ACTIVE_REGION = new DynamicCommandExceptionType(o -> Text.translatable("enhanced_commands.region.no_active_region", o));
 
+  /**
+   * 获取用于执行命令的活动区域，开销较大的区域会被{@linkplain MaterializedRegion#cached(Region) 预先计算并缓存}，从而对同一个活动区域执行多个命令时不需要重复计算。
+   */
   default @NotNull Region ec$getOrEvaluateActiveRegionOrThrow() throws CommandSyntaxException {
     final Region region = ec$getOrEvaluateActiveRegion();
     if (region == null) {
       throw PLAYER_HAS_NO_ACTIVE_REGION.create(((ServerPlayerEntity) this).getName());
     }
-    return region;
+    return MaterializedRegion.cached(region);
   }
 
   void ec$setActiveRegion(Region region);